@@ -7,6 +7,7 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.LineNumberReader;
+import java.lang.management.ManagementFactory;
 import java.util.*;
 
 
@@ -30,6 +31,9 @@ public class AnalyzeWebSite {
         System.out.println(sc.numberOfComp());
         //System.out.println(sc);
 
+        // Kosaraju-Sharir und Tarjan vergleichen
+        compareStrongComponents(webSiteGraph);
+
         // Page Rank ermitteln und Top-100 ausgeben
         pageRank(webSiteGraph);
     }
@@ -41,9 +45,9 @@ public class AnalyzeWebSite {
      * @param dirName Name eines Verzeichnis
      * @return gerichteter Graph mit Namen der Web-Seiten als Knoten und Links als gerichtete Kanten.
      */
-    private static DirectedGraph buildGraphFromWebSite(String dirName) throws IOException {
+    private static DirectedGraph<String> buildGraphFromWebSite(String dirName) throws IOException {
         File webSite = new File(dirName);
-        DirectedGraph<String> webSiteGraph = new AdjacencyListDirectedGraph();
+        CsrDirectedGraph.Builder<String> webSiteGraph = new CsrDirectedGraph.Builder<>();
 
         for (File f : webSite.listFiles()) {
             String from = f.getName();
@@ -57,7 +61,55 @@ public class AnalyzeWebSite {
                 }
             }
         }
-        return webSiteGraph;
+        return webSiteGraph.build();
+    }
+
+    /**
+     * Vergleicht Laufzeit und angelegten Speicher von StrongComponents (Kosaraju-Sharir)
+     * und TarjanStrongComponents und prüft, ob beide dieselben Komponenten liefern.
+     * Gemessen wird jeweils der schnellste von mehreren Durchläufen.
+     *
+     * @param g gerichteter Graph.
+     */
+    private static <V> void compareStrongComponents(DirectedGraph<V> g) {
+        int rounds = 20;
+        long[] kosaraju = {Long.MAX_VALUE, 0};
+        long[] tarjan = {Long.MAX_VALUE, 0};
+        StrongComponents<V> sc = null;
+        TarjanStrongComponents<V> tsc = null;
+
+        for (int i = 0; i < rounds; i++) {
+            long bytes = allocatedBytes();
+            long start = System.nanoTime();
+
+            sc = new StrongComponents<>(g);
+
+            long middle = System.nanoTime();
+            long middleBytes = allocatedBytes();
+
+            tsc = new TarjanStrongComponents<>(g);
+
+            long end = System.nanoTime();
+
+            kosaraju[0] = Math.min(kosaraju[0], middle - start);
+            kosaraju[1] = middleBytes - bytes;
+            tarjan[0] = Math.min(tarjan[0], end - middle);
+            tarjan[1] = allocatedBytes() - middleBytes;
+        }
+
+        System.out.printf("Kosaraju-Sharir: %d Komponenten in %.2f ms, %d KB angelegt%n",
+                sc.numberOfComp(), kosaraju[0] / 1e6, kosaraju[1] / 1024);
+        System.out.printf("Tarjan: %d Komponenten in %.2f ms, %d KB angelegt%n",
+                tsc.numberOfComp(), tarjan[0] / 1e6, tarjan[1] / 1024);
+
+        boolean same = StrongComponents.sameComponents(g.getVertexSet(),
+                sc.numberOfComp(), sc::componentOf, tsc.numberOfComp(), tsc::componentOf);
+
+        System.out.println("Gleiche Komponenten: " + same);
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
     }
 
     /**
@@ -70,42 +122,54 @@ public class AnalyzeWebSite {
         int nI = 10;
         double alpha = 0.5;
 
-        Map<V, Double> rankTable = new TreeMap<>();
+        VertexIndex<V> index = g.getVertexIndex();
+        int n = index.getNumberOfVertexes();
 
-        for (int i = 0; i < nI; i++) {
-            for (V w: g.getVertexSet()) {
-                if (!rankTable.containsKey(w)) {
-                    rankTable.put(w, 1.0);
-                } else {
-                    double sum = 0;
+        // Ranks nach Knotennummer; die Knoten werden der Reihe nach aktualisiert,
+        // so dass schon die neuen Ranks der Vorgänger mit kleinerer Nummer verwendet werden.
+        double[] rankTable = new double[n];
 
-                    for (V v: g.getPredecessorVertexSet(w)) {
-                        sum += rankTable.getOrDefault(v, 1.0) / g.getSuccessorVertexSet(v).size();
-                    }
+        Arrays.fill(rankTable, 1.0);
 
-                    rankTable.put(w, (1 - alpha) + alpha * sum);
+        for (int i = 1; i < nI; i++) {
+            for (int w = 0; w < n; w++) {
+                double sum = 0;
+
+                for (int k = 0; k < index.inDegreeAt(w); k++) {
+                    int v = index.predecessorAt(w, k);
+
+                    sum += rankTable[v] / index.outDegreeAt(v);
                 }
+
+                rankTable[w] = (1 - alpha) + alpha * sum;
             }
         }
 
         System.out.println("Unsortiert:");
 
-        for (Map.Entry<V, Double> entry : rankTable.entrySet()) {
-            System.out.println(entry.getKey() + ": " + entry.getValue());
+        for (int v = 0; v < n; v++) {
+            System.out.println(index.vertexAt(v) + ": " + rankTable[v]);
         }
 
-        List<Map.Entry<V, Double>> entries = new ArrayList<>(rankTable.entrySet());
+        // Stabil sortiert, so dass Knoten mit gleichem Rank nach Nummer geordnet bleiben.
+        Integer[] entries = new Integer[n];
 
-        entries.sort(Map.Entry.comparingByValue());
+        for (int v = 0; v < n; v++) {
+            entries[v] = v;
+        }
+
+        Arrays.sort(entries, (v, w) -> Double.compare(rankTable[v], rankTable[w]));
 
         System.out.println("\n\nSortiert:");
 
-        for (Map.Entry<V, Double> entry : entries) {
-            System.out.println(entry.getKey() + ": " + entry.getValue());
+        for (int v : entries) {
+            System.out.println(index.vertexAt(v) + ": " + rankTable[v]);
         }
         
         System.out.println("\n\nTop-Seite:");
 
-        System.out.println(entries.getLast().getKey() + ": " + entries.getLast().getValue());
+        int top = entries[n - 1];
+
+        System.out.println(index.vertexAt(top) + ": " + rankTable[top]);
     }
 }
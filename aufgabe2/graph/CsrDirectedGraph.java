@@ -0,0 +1,596 @@
+package directedGraph;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Unveränderliche Implementierung von DirectedGraph im CSR-Format (compressed sparse row).
+ * <p>
+ * Die Knoten werden auf die Indizes 0, ..., n-1 abgebildet.
+ * Die Nachfolger von Knoten v stehen in succTargets[succOffsets[v]], ..., succTargets[succOffsets[v+1]-1],
+ * aufsteigend nach Index sortiert, ihre Gewichte an denselben Positionen in succWeights.
+ * Ebenso werden die Vorgänger in predOffsets, predSources und predWeights abgespeichert.
+ * Eine Kante kostet damit in jeder Richtung ein int und ein double.
+ * <p>
+ * Ein Graph wird mit einem Builder oder mit copyOf erzeugt.
+ * addVertex und addEdge werfen eine UnsupportedOperationException.
+ * Der Graph ist selbst sein VertexIndex, so dass Algorithmen über die Methoden mit Index (z.B. successorAt)
+ * ohne Kopie direkt auf die Arrays zugreifen.
+ *
+ * @param <V> Knotentyp.
+ */
+public class CsrDirectedGraph<V> implements DirectedGraph<V>, VertexIndex<V> {
+    private final V[] vertices;
+    private final Map<V, Integer> index;
+
+    private final int[] succOffsets;
+    private final int[] succTargets;
+    private final double[] succWeights;
+
+    private final int[] predOffsets;
+    private final int[] predSources;
+    private final double[] predWeights;
+
+    private final Set<V> vertexSet;
+
+    private CsrDirectedGraph(V[] vertices, Map<V, Integer> index,
+                             int[] succOffsets, int[] succTargets, double[] succWeights,
+                             int[] predOffsets, int[] predSources, double[] predWeights) {
+        this.vertices = vertices;
+        this.index = index;
+        this.succOffsets = succOffsets;
+        this.succTargets = succTargets;
+        this.succWeights = succWeights;
+        this.predOffsets = predOffsets;
+        this.predSources = predSources;
+        this.predWeights = predWeights;
+        this.vertexSet = new VertexSet(0, vertices.length, null);
+    }
+
+    /**
+     * Erzeugt eine unveränderliche Kopie von g.
+     * Die Knoten behalten die Reihenfolge von g.getVertexSet(), und Nachfolger und Vorgänger
+     * werden in dieser Reihenfolge geliefert, bei einem AdjacencyListDirectedGraph also genau wie von g.
+     *
+     * @param g gerichteter Graph.
+     * @param <V> Knotentyp.
+     * @return Kopie von g.
+     */
+    public static <V> CsrDirectedGraph<V> copyOf(DirectedGraph<V> g) {
+        Builder<V> builder = new Builder<>(null, false);
+
+        for (V v : g.getVertexSet()) {
+            builder.addVertex(v);
+        }
+
+        for (V v : g.getVertexSet()) {
+            for (V w : g.getSuccessorVertexSet(v)) {
+                builder.addEdge(v, w, g.getWeight(v, w));
+            }
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * @return dieser Graph.
+     */
+    @Override
+    public VertexIndex<V> getVertexIndex() {
+        return this;
+    }
+
+    @Override
+    public int indexOf(V v) {
+        Integer i = index.get(v);
+
+        return (i == null) ? -1 : i;
+    }
+
+    @Override
+    public V vertexAt(int i) {
+        return vertices[i];
+    }
+
+    @Override
+    public int outDegreeAt(int v) {
+        return succOffsets[v + 1] - succOffsets[v];
+    }
+
+    @Override
+    public int successorAt(int v, int k) {
+        return succTargets[succOffsets[v] + k];
+    }
+
+    /**
+     * @param v Index eines Knotens.
+     * @param k Nummer des Nachfolgers, 0 &lt;= k &lt; outDegreeAt(v).
+     * @return Gewicht der Kante zum k-ten Nachfolger des Knotens mit Index v.
+     */
+    public double successorWeightAt(int v, int k) {
+        return succWeights[succOffsets[v] + k];
+    }
+
+    @Override
+    public int inDegreeAt(int v) {
+        return predOffsets[v + 1] - predOffsets[v];
+    }
+
+    @Override
+    public int predecessorAt(int v, int k) {
+        return predSources[predOffsets[v] + k];
+    }
+
+    /**
+     * @param v Index eines Knotens.
+     * @param k Nummer des Vorgängers, 0 &lt;= k &lt; inDegreeAt(v).
+     * @return Gewicht der Kante vom k-ten Vorgänger zum Knoten mit Index v.
+     */
+    public double predecessorWeightAt(int v, int k) {
+        return predWeights[predOffsets[v] + k];
+    }
+
+    private int checkedIndexOf(V v) {
+        int i = indexOf(v);
+
+        if (i < 0) {
+            throw new IllegalArgumentException();
+        }
+
+        return i;
+    }
+
+    /**
+     * Liefert die Position der Kante von v nach w in succTargets zurück, oder -1 falls sie nicht existiert.
+     */
+    private int edgeIndex(V v, V w) {
+        int i = indexOf(v);
+        int j = indexOf(w);
+
+        if (i < 0 || j < 0) {
+            return -1;
+        }
+
+        int k = Arrays.binarySearch(succTargets, succOffsets[i], succOffsets[i + 1], j);
+
+        return (k < 0) ? -1 : k;
+    }
+
+    @Override
+    public boolean addVertex(V v) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean addEdge(V v, V w) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean addEdge(V v, V w, double weight) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean containsVertex(V v) {
+        return index.containsKey(v);
+    }
+
+    @Override
+    public boolean containsEdge(V v, V w) {
+        return edgeIndex(v, w) >= 0;
+    }
+
+    @Override
+    public double getWeight(V v, V w) {
+        int k = edgeIndex(v, w);
+
+        if (k < 0) {
+            throw new IllegalArgumentException();
+        }
+
+        return succWeights[k];
+    }
+
+    @Override
+    public int getNumberOfVertexes() {
+        return vertices.length;
+    }
+
+    @Override
+    public int getNumberOfEdges() {
+        return succTargets.length;
+    }
+
+    @Override
+    public Set<V> getVertexSet() {
+        return vertexSet;
+    }
+
+    @Override
+    public int getInDegree(V v) {
+        return inDegreeAt(checkedIndexOf(v));
+    }
+
+    @Override
+    public int getOutDegree(V v) {
+        return outDegreeAt(checkedIndexOf(v));
+    }
+
+    @Override
+    public Set<V> getPredecessorVertexSet(V v) {
+        int i = checkedIndexOf(v);
+
+        return new VertexSet(predOffsets[i], predOffsets[i + 1], predSources);
+    }
+
+    @Override
+    public Set<V> getSuccessorVertexSet(V v) {
+        int i = checkedIndexOf(v);
+
+        return new VertexSet(succOffsets[i], succOffsets[i + 1], succTargets);
+    }
+
+    /**
+     * Liefert den invertierten Graphen zurück, ohne Kanten zu kopieren:
+     * Er verwendet die Arrays dieses Graphen mit vertauschten Rollen von Nachfolgern und Vorgängern.
+     *
+     * @return invertierter Graph
+     */
+    @Override
+    public CsrDirectedGraph<V> invert() {
+        return new CsrDirectedGraph<>(vertices, index, predOffsets, predSources, predWeights,
+                succOffsets, succTargets, succWeights);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder str = new StringBuilder();
+
+        for (int v = 0; v < vertices.length; v++) {
+            for (int k = succOffsets[v]; k < succOffsets[v + 1]; k++) {
+                str.append(vertices[v]).append(" --> ").append(vertices[succTargets[k]])
+                        .append(" weight = ").append(succWeights[k]).append("\n");
+            }
+        }
+
+        return str.toString();
+    }
+
+    /**
+     * Nicht modifizierbare Sicht auf die Knoten mit den Indizes ids[from], ..., ids[to-1],
+     * die aufsteigend sortiert sind, oder auf die Knoten mit den Indizes from, ..., to-1, falls ids null ist.
+     */
+    private class VertexSet extends AbstractSet<V> {
+        private final int from;
+        private final int to;
+        private final int[] ids;
+
+        VertexSet(int from, int to, int[] ids) {
+            this.from = from;
+            this.to = to;
+            this.ids = ids;
+        }
+
+        @Override
+        public Iterator<V> iterator() {
+            return new Iterator<>() {
+                int k = from;
+
+                @Override
+                public boolean hasNext() {
+                    return k < to;
+                }
+
+                @Override
+                public V next() {
+                    if (k >= to) {
+                        throw new NoSuchElementException();
+                    }
+
+                    int i = (ids == null) ? k : ids[k];
+
+                    k++;
+
+                    return vertices[i];
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            Integer i = index.get(o);
+
+            if (i == null) {
+                return false;
+            }
+
+            if (ids == null) {
+                return true;
+            }
+
+            return Arrays.binarySearch(ids, from, to, i) >= 0;
+        }
+    }
+
+    /**
+     * Sammelt Knoten und Kanten und erzeugt daraus einen CsrDirectedGraph.
+     * Die Knoten werden sortiert, so dass der Graph seine Knoten, Nachfolger und Vorgänger
+     * in derselben Reihenfolge wie ein AdjacencyListDirectedGraph liefert.
+     * Mehrfache Kanten werden entfernt; wie bei addEdge gilt das Gewicht der zuletzt hinzugefügten Kante.
+     *
+     * @param <V> Knotentyp.
+     */
+    public static class Builder<V> {
+        private final Comparator<? super V> cmp;
+        private final boolean sorted;
+
+        // Knoten in der Reihenfolge, in der sie hinzugefügt wurden:
+        private final Map<V, Integer> ids = new HashMap<>();
+        private Object[] vertices = new Object[16];
+
+        private int numberEdge = 0;
+        private int[] sources = new int[16];
+        private int[] targets = new int[16];
+        private double[] weights = new double[16];
+
+        /**
+         * Erzeugt einen Builder, der die Knoten nach ihrer natürlichen Ordnung sortiert.
+         * V muss vom Typ Comparable&lt;V&gt; sein.
+         */
+        public Builder() {
+            this(null, true);
+        }
+
+        /**
+         * Erzeugt einen Builder, der die Knoten mit cmp sortiert.
+         *
+         * @param cmp Ordnung der Knoten.
+         */
+        public Builder(Comparator<? super V> cmp) {
+            this(cmp, true);
+        }
+
+        private Builder(Comparator<? super V> cmp, boolean sorted) {
+            this.cmp = cmp;
+            this.sorted = sorted;
+        }
+
+        /**
+         * Fügt Knoten v hinzu, falls er noch nicht vorhanden ist.
+         *
+         * @param v Knoten
+         * @return dieser Builder.
+         */
+        public Builder<V> addVertex(V v) {
+            id(v);
+
+            return this;
+        }
+
+        /**
+         * Fügt eine Kante von v nach w mit Gewicht 1 hinzu.
+         *
+         * @param v Startknoten
+         * @param w Zielknoten
+         * @return dieser Builder.
+         */
+        public Builder<V> addEdge(V v, V w) {
+            return addEdge(v, w, 1);
+        }
+
+        /**
+         * Fügt eine Kante von v nach w mit Gewicht weight hinzu.
+         *
+         * @param v Startknoten
+         * @param w Zielknoten
+         * @param weight Gewicht
+         * @return dieser Builder.
+         */
+        public Builder<V> addEdge(V v, V w, double weight) {
+            if (numberEdge == sources.length) {
+                sources = Arrays.copyOf(sources, 2 * numberEdge);
+                targets = Arrays.copyOf(targets, 2 * numberEdge);
+                weights = Arrays.copyOf(weights, 2 * numberEdge);
+            }
+
+            sources[numberEdge] = id(v);
+            targets[numberEdge] = id(w);
+            weights[numberEdge] = weight;
+            numberEdge++;
+
+            return this;
+        }
+
+        private int id(V v) {
+            Integer id = ids.get(v);
+
+            if (id != null) {
+                return id;
+            }
+
+            int n = ids.size();
+
+            if (n == vertices.length) {
+                vertices = Arrays.copyOf(vertices, 2 * n);
+            }
+
+            vertices[n] = v;
+            ids.put(v, n);
+
+            return n;
+        }
+
+        /**
+         * Erzeugt den Graphen.
+         * Die Kanten werden nach Start- und Zielknoten sortiert und Mehrfachkanten entfernt,
+         * was O(n + m log d) Schritte benötigt, wobei d der größte Ausgangsgrad ist.
+         *
+         * @return Graph mit allen hinzugefügten Knoten und Kanten.
+         */
+        @SuppressWarnings("unchecked")
+        public CsrDirectedGraph<V> build() {
+            int n = ids.size();
+            V[] order = (V[]) Arrays.copyOf(vertices, n);
+
+            if (sorted) {
+                Arrays.sort(order, cmp);
+            }
+
+            Map<V, Integer> index = new HashMap<>();
+
+            for (int i = 0; i < n; i++) {
+                index.put(order[i], i);
+            }
+
+            // rank[id] ist der endgültige Index des Knotens, der als id-ter hinzugefügt wurde.
+            int[] rank = new int[n];
+
+            for (int i = 0; i < n; i++) {
+                rank[i] = index.get((V) vertices[i]);
+            }
+
+            // Kanten nach Startknoten verteilen; die Reihenfolge des Hinzufügens bleibt erhalten.
+            int[] offsets = new int[n + 1];
+
+            for (int e = 0; e < numberEdge; e++) {
+                offsets[rank[sources[e]] + 1]++;
+            }
+
+            for (int v = 0; v < n; v++) {
+                offsets[v + 1] += offsets[v];
+            }
+
+            // Zielknoten im oberen und Nummer der Kante im unteren Teil, so dass bei gleichem Ziel
+            // die zuletzt hinzugefügte Kante hinten steht.
+            long[] keys = new long[numberEdge];
+            int[] next = Arrays.copyOf(offsets, n);
+
+            for (int e = 0; e < numberEdge; e++) {
+                keys[next[rank[sources[e]]]++] = (long) rank[targets[e]] << 32 | e;
+            }
+
+            int[] succOffsets = new int[n + 1];
+            int[] succTargets = new int[numberEdge];
+            double[] succWeights = new double[numberEdge];
+            int m = 0;
+
+            for (int v = 0; v < n; v++) {
+                Arrays.sort(keys, offsets[v], offsets[v + 1]);
+
+                for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                    int target = (int) (keys[k] >>> 32);
+
+                    if (k + 1 < offsets[v + 1] && (int) (keys[k + 1] >>> 32) == target) {
+                        continue;
+                    }
+
+                    succTargets[m] = target;
+                    succWeights[m] = weights[(int) keys[k]];
+                    m++;
+                }
+
+                succOffsets[v + 1] = m;
+            }
+
+            succTargets = Arrays.copyOf(succTargets, m);
+            succWeights = Arrays.copyOf(succWeights, m);
+
+            // Vorgänger: Kanten nach Zielknoten verteilen; die Startknoten sind dann aufsteigend sortiert.
+            int[] predOffsets = new int[n + 1];
+
+            for (int k = 0; k < m; k++) {
+                predOffsets[succTargets[k] + 1]++;
+            }
+
+            for (int v = 0; v < n; v++) {
+                predOffsets[v + 1] += predOffsets[v];
+            }
+
+            int[] predSources = new int[m];
+            double[] predWeights = new double[m];
+
+            next = Arrays.copyOf(predOffsets, n);
+
+            for (int v = 0; v < n; v++) {
+                for (int k = succOffsets[v]; k < succOffsets[v + 1]; k++) {
+                    int p = next[succTargets[k]]++;
+
+                    predSources[p] = v;
+                    predWeights[p] = succWeights[k];
+                }
+            }
+
+            return new CsrDirectedGraph<>(order, index, succOffsets, succTargets, succWeights,
+                    predOffsets, predSources, predWeights);
+        }
+    }
+
+    public static void main(String[] args) {
+        CsrDirectedGraph<Integer> g = new CsrDirectedGraph.Builder<Integer>()
+                .addEdge(1, 2)
+                .addEdge(2, 5)
+                .addEdge(5, 1)
+                .addEdge(2, 6)
+                .addEdge(3, 7)
+                .addEdge(4, 3)
+                .addEdge(4, 6)
+                .addEdge(7, 4)
+                .addEdge(1, 2, 5.0)
+                .build();
+
+        System.out.println(g.getNumberOfVertexes());	// 7
+        System.out.println(g.getNumberOfEdges());		// 8
+        System.out.println(g.getVertexSet());	// 1, 2, ..., 7
+        System.out.println(g);
+            // 1 --> 2 weight = 5.0
+            // 2 --> 5 weight = 1.0
+            // 2 --> 6 weight = 1.0
+            // 3 --> 7 weight = 1.0
+            // ...
+
+        System.out.println("");
+        System.out.println(g.getOutDegree(2));				// 2
+        System.out.println(g.getSuccessorVertexSet(2));	// 5, 6
+        System.out.println(g.getInDegree(6));				// 2
+        System.out.println(g.getPredecessorVertexSet(6));	// 2, 4
+        System.out.println(g.containsEdge(1, 2));	// true
+        System.out.println(g.containsEdge(2, 1));	// false
+        System.out.println(g.getWeight(1, 2));	// 5.0
+
+        System.out.println("");
+        int v = g.indexOf(2);
+        for (int k = 0; k < g.outDegreeAt(v); k++) {
+            System.out.print(g.vertexAt(g.successorAt(v, k)) + " ");	// 5 6
+        }
+        System.out.println();
+
+        System.out.println("");
+        System.out.println(g.invert());
+            // 1 --> 5 weight = 1.0
+            // 2 --> 1 weight = 5.0
+            // 3 --> 4 weight = 1.0
+            // 4 --> 7 weight = 1.0
+            // ...
+
+        DirectedGraph<Integer> copy = CsrDirectedGraph.copyOf(g.invert());
+        System.out.println(copy.getSuccessorVertexSet(6));	// 2, 4
+
+        try {
+            g.addEdge(6, 7);
+        } catch (UnsupportedOperationException e) {
+            System.out.println("Der Graph ist nicht veränderbar.");
+        }
+    }
+}
@@ -6,6 +6,7 @@ import java.util.*;
 
 /**
  * Klasse für Tiefensuche.
+ * Die Tiefensuche läuft iterativ mit DepthFirstSearch.
  *
  * @author Oliver Bittel
  * @since 22.02.2017
@@ -13,9 +14,11 @@ import java.util.*;
  */
 public class DepthFirstOrder<V> {
 
-    private final List<V> preOrder = new LinkedList<>();
-    private final List<V> postOrder = new LinkedList<>();
-    private final DirectedGraph<V> myGraph;
+    private final VertexIndex<V> index;
+    private final int[] preOrder;
+    private final int[] postOrder;
+    private int numberOfPre = 0;
+    private int numberOfPost = 0;
     private int numberOfDFTrees = 0;
 	// ...
 
@@ -25,30 +28,43 @@ public class DepthFirstOrder<V> {
      * @param g gerichteter Graph.
      */
     public DepthFirstOrder(DirectedGraph<V> g) {
-        myGraph = g;
+        this(g.getVertexIndex());
+    }
+
+    /**
+     * Führt eine Tiefensuche über die nummerierten Knoten von index durch.
+     *
+     * @param index Nummerierung der Knoten eines Graphen.
+     */
+    DepthFirstOrder(VertexIndex<V> index) {
+        this.index = index;
 
-        Set<V> visited = new HashSet<>();
+        int n = index.getNumberOfVertexes();
 
-        for (V vertex : g.getVertexSet()) {
-            if (!visited.contains(vertex)) {
-                visitDF(vertex, visited);
+        preOrder = new int[n];
+        postOrder = new int[n];
 
-                numberOfDFTrees++;
+        DepthFirstSearch<V> dfs = new DepthFirstSearch<>(index);
+
+        DepthFirstSearch.Visitor visitor = new DepthFirstSearch.Visitor() {
+            @Override
+            public void preVisit(int v) {
+                preOrder[numberOfPre++] = v;
             }
-        }
-    }
 
-    private void visitDF(V v, Set<V> visited) {
-        visited.add(v);
+            @Override
+            public void postVisit(int v, int parent) {
+                postOrder[numberOfPost++] = v;
+            }
+        };
 
-        preOrder.add(v);
+        for (int v = 0; v < n; v++) {
+            if (!dfs.isVisited(v)) {
+                dfs.search(v, visitor);
 
-        for (V w : myGraph.getSuccessorVertexSet(v)) {
-            if (!visited.contains(w) )
-                visitDF(w, visited);
+                numberOfDFTrees++;
+            }
         }
-
-        postOrder.add(v);
     }
 
     /**
@@ -58,7 +74,7 @@ public class DepthFirstOrder<V> {
      * @return Pre-Order-Reihenfolge der Tiefensuche.
      */
     public List<V> preOrder() {
-        return Collections.unmodifiableList(preOrder);
+        return view(preOrder);
     }
 
     /**
@@ -68,7 +84,28 @@ public class DepthFirstOrder<V> {
      * @return Post-Order-Reihenfolge der Tiefensuche.
      */
     public List<V> postOrder() {
-        return Collections.unmodifiableList(postOrder);
+        return view(postOrder);
+    }
+
+    /**
+     * @return Nummern der Knoten in Post-Order-Reihenfolge; darf nicht verändert werden.
+     */
+    int[] postOrderIndexes() {
+        return postOrder;
+    }
+
+    private List<V> view(int[] order) {
+        return new AbstractList<>() {
+            @Override
+            public V get(int i) {
+                return index.vertexAt(order[i]);
+            }
+
+            @Override
+            public int size() {
+                return order.length;
+            }
+        };
     }
 
     /**
@@ -0,0 +1,226 @@
+package directedGraph;
+
+import java.util.BitSet;
+
+/**
+ * Iterative Tiefensuche über die nummerierten Knoten eines VertexIndex.
+ * <p>
+ * Statt Rekursion wird ein expliziter Stack aus zwei int-Arrays verwendet
+ * (Knoten und Position des nächsten Nachbarn), so dass auch Pfade mit Millionen von Knoten
+ * keinen StackOverflowError auslösen.
+ * Ein Visitor wird beim Betreten und Verlassen jedes Knotens und für jede Kante aufgerufen;
+ * die Kanten werden dabei in Baum-, Rückwärts-, Vorwärts- und Querkanten eingeteilt.
+ * <p>
+ * Eine Tiefensuche kann mit search aus mehreren Startknoten fortgesetzt werden;
+ * bereits besuchte Knoten werden nicht erneut besucht.
+ *
+ * @param <V> Knotentyp.
+ */
+public class DepthFirstSearch<V> {
+
+    /**
+     * Art einer Kante v -&gt; w bezüglich des Tiefensuchwalds.
+     */
+    public enum EdgeType {
+        /** w wird über diese Kante zum ersten Mal besucht. */
+        TREE,
+        /** w liegt auf dem aktuellen Pfad; die Kante schließt einen Zyklus. */
+        BACK,
+        /** w ist bereits abgeschlossener Nachfahre von v. */
+        FORWARD,
+        /** w ist bereits abgeschlossen und kein Nachfahre von v. */
+        CROSS
+    }
+
+    /**
+     * Rückrufe der Tiefensuche. Alle Methoden haben eine leere Standardimplementierung.
+     */
+    public interface Visitor {
+        /**
+         * Wird beim Betreten von v aufgerufen.
+         * @param v Nummer des Knotens.
+         */
+        default void preVisit(int v) {
+        }
+
+        /**
+         * Wird beim Verlassen von v aufgerufen, nachdem alle Nachbarn bearbeitet wurden.
+         * @param v Nummer des Knotens.
+         * @param parent Nummer des Knotens, von dem aus v besucht wurde, oder -1 für einen Startknoten.
+         */
+        default void postVisit(int v, int parent) {
+        }
+
+        /**
+         * Wird für jede Kante v -&gt; w aufgerufen, bei einer Baumkante bevor w betreten wird.
+         * @param v Nummer des Startknotens.
+         * @param w Nummer des Zielknotens.
+         * @param type Art der Kante.
+         * @return false, um die Tiefensuche abzubrechen.
+         */
+        default boolean edge(int v, int w, EdgeType type) {
+            return true;
+        }
+    }
+
+    private final VertexIndex<V> index;
+    private final boolean reverse;
+
+    // Nummer in Pre-Order-Reihenfolge ab 1, oder 0 für noch nicht besuchte Knoten:
+    private final int[] pre;
+    private final BitSet finished;
+    private int numberOfPre = 0;
+
+    // Stack mit den Knoten des aktuellen Pfads und der Position ihres nächsten Nachbarn:
+    private final int[] stackVertex;
+    private final int[] stackNext;
+    private int top = 0;
+
+    /**
+     * Bereitet eine Tiefensuche entlang der Kanten vor.
+     * @param index Nummerierung der Knoten eines Graphen.
+     */
+    public DepthFirstSearch(VertexIndex<V> index) {
+        this(index, false);
+    }
+
+    /**
+     * Bereitet eine Tiefensuche vor.
+     * @param index Nummerierung der Knoten eines Graphen.
+     * @param reverse falls true, werden die Kanten rückwärts durchlaufen, also von jedem Knoten zu seinen Vorgängern.
+     */
+    public DepthFirstSearch(VertexIndex<V> index, boolean reverse) {
+        this.index = index;
+        this.reverse = reverse;
+
+        int n = index.getNumberOfVertexes();
+
+        pre = new int[n];
+        finished = new BitSet(n);
+        stackVertex = new int[n];
+        stackNext = new int[n];
+    }
+
+    /**
+     * @param v Nummer eines Knotens.
+     * @return true, falls v schon besucht wurde.
+     */
+    public boolean isVisited(int v) {
+        return pre[v] != 0;
+    }
+
+    /**
+     * Setzt die Tiefensuche mit Startknoten root fort, falls root noch nicht besucht wurde.
+     * @param root Nummer des Startknotens.
+     * @param visitor Rückrufe.
+     * @return false, falls der Visitor die Suche abgebrochen hat.
+     */
+    public boolean search(int root, Visitor visitor) {
+        if (isVisited(root)) {
+            return true;
+        }
+
+        enter(root, visitor);
+
+        while (top > 0) {
+            int v = stackVertex[top - 1];
+            int k = stackNext[top - 1];
+
+            if (k < degree(v)) {
+                stackNext[top - 1] = k + 1;
+
+                int w = neighbor(v, k);
+                EdgeType type;
+
+                if (!isVisited(w)) {
+                    type = EdgeType.TREE;
+                } else if (!finished.get(w)) {
+                    type = EdgeType.BACK;
+                } else if (pre[w] > pre[v]) {
+                    type = EdgeType.FORWARD;
+                } else {
+                    type = EdgeType.CROSS;
+                }
+
+                if (!visitor.edge(v, w, type)) {
+                    top = 0;
+                    return false;
+                }
+
+                if (type == EdgeType.TREE) {
+                    enter(w, visitor);
+                }
+            } else {
+                top--;
+                finished.set(v);
+
+                visitor.postVisit(v, (top > 0) ? stackVertex[top - 1] : -1);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Setzt die Tiefensuche mit allen noch nicht besuchten Knoten in der Reihenfolge ihrer Nummern als Startknoten fort.
+     * @param visitor Rückrufe.
+     * @return false, falls der Visitor die Suche abgebrochen hat.
+     */
+    public boolean searchAll(Visitor visitor) {
+        for (int v = 0; v < pre.length; v++) {
+            if (!search(v, visitor)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void enter(int v, Visitor visitor) {
+        pre[v] = ++numberOfPre;
+
+        stackVertex[top] = v;
+        stackNext[top] = 0;
+        top++;
+
+        visitor.preVisit(v);
+    }
+
+    private int degree(int v) {
+        return reverse ? index.inDegreeAt(v) : index.outDegreeAt(v);
+    }
+
+    private int neighbor(int v, int k) {
+        return reverse ? index.predecessorAt(v, k) : index.successorAt(v, k);
+    }
+
+    public static void main(String[] args) {
+        // Eine Kette 0 -> 1 -> ... -> n-1, die mit Rekursion den Stack sprengen würde:
+        int n = 1_000_000;
+        CsrDirectedGraph.Builder<Integer> builder = new CsrDirectedGraph.Builder<>();
+
+        for (int i = 0; i < n - 1; i++) {
+            builder.addEdge(i, i + 1);
+        }
+
+        builder.addEdge(n - 1, n / 2);
+
+        DirectedGraph<Integer> g = builder.build();
+        int[] counts = new int[EdgeType.values().length];
+
+        new DepthFirstSearch<>(g.getVertexIndex()).searchAll(new Visitor() {
+            @Override
+            public boolean edge(int v, int w, EdgeType type) {
+                counts[type.ordinal()]++;
+                return true;
+            }
+        });
+
+        for (EdgeType type : EdgeType.values()) {
+            System.out.println(type + ": " + counts[type.ordinal()]);	// TREE: 999999, BACK: 1, FORWARD: 0, CROSS: 0
+        }
+
+        System.out.println(new DepthFirstOrder<>(g).postOrder().get(0));	// 999999
+        System.out.println(new StrongComponents<>(g).numberOfComp());	// 500001
+    }
+}
@@ -13,8 +13,8 @@ import java.util.*;
  */
 public class DirectedCycle<V> {
 	// ...
-	private final List<V> cycle = new LinkedList<>();	// ein Zyklus, falls vorhanden
-	private final DirectedGraph<V> myGraph;
+	private final List<V> cycle = new ArrayList<>();	// ein Zyklus, falls vorhanden
+	private final VertexIndex<V> index;
 
 	/**
 	 * Führt eine Tiefensuche für g durch und prüft dabei auf Zyklen.
@@ -22,38 +22,46 @@ public class DirectedCycle<V> {
 	 * @param g gerichteter Graph.
 	 */
 	public DirectedCycle(DirectedGraph<V> g) {
-		myGraph = g;
+		index = g.getVertexIndex();
 
-		Set<V> visited = new HashSet<>();
-		Stack<V> path = new Stack<>();
-		Set<V> nodeInPath = new HashSet<>();
+		int n = index.getNumberOfVertexes();
 
-		for (V v : myGraph.getVertexSet()) {
-			if (!visited.contains(v)) {
-				searchDirectedCycle(v, visited, path, nodeInPath);
+		// Knoten des aktuellen Pfads:
+		int[] path = new int[n];
 
-				if (hasCycle()) {
-					return;
-				}
-			}
-		}
-	}
+		new DepthFirstSearch<>(index).searchAll(new DepthFirstSearch.Visitor() {
+			int depth = 0;
 
-	private void searchDirectedCycle(V v, Set<V> visited, Stack<V> path, Set<V> nodeInPath) {
-		visited.add(v);
-		path.push(v);
-		nodeInPath.add(v);
+			@Override
+			public void preVisit(int v) {
+				path[depth++] = v;
+			}
 
-		for (V w : myGraph.getSuccessorVertexSet(v)) {
-			if (!visited.contains(w) ) {
-				searchDirectedCycle(w, visited, path, nodeInPath);
-			} else if (nodeInPath.contains(w)) {
-				cycle.addAll(nodeInPath);
+			@Override
+			public void postVisit(int v, int parent) {
+				depth--;
 			}
-		}
 
-		path.pop();
-		nodeInPath.remove(v);
+			@Override
+			public boolean edge(int v, int w, DepthFirstSearch.EdgeType type) {
+				if (type != DepthFirstSearch.EdgeType.BACK) {
+					return true;
+				}
+
+				// Die Kante schließt den Zyklus aus den Knoten des Pfads ab w.
+				int start = depth - 1;
+
+				while (path[start] != w) {
+					start--;
+				}
+
+				for (int i = start; i < depth; i++) {
+					cycle.add(index.vertexAt(path[i]));
+				}
+
+				return false;
+			}
+		});
 	}
 
 	
@@ -140,4 +140,15 @@ public interface DirectedGraph<V> {
      * @return invertierter Graph
      */
     DirectedGraph<V> invert();
+
+	/**
+	 * Liefert eine Nummerierung der Knoten mit 0, ..., n-1 zurück,
+	 * über die Graphalgorithmen ihre Daten in Arrays ablegen können.
+	 * Die Standardimplementierung erzeugt dazu eine Kopie als CsrDirectedGraph;
+	 * spätere Änderungen des Graphen sind darin nicht enthalten.
+	 * @return Nummerierung der Knoten.
+	 */
+	default VertexIndex<V> getVertexIndex() {
+		return CsrDirectedGraph.copyOf(this);
+	}
 }
@@ -0,0 +1,502 @@
+package directedGraph;
+
+import java.util.Arrays;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
+
+/**
+ * Klasse für Bestimmung aller strengen Komponenten auf mehreren Kernen.
+ * Forward-Backward Algorithmus mit Trimming.
+ * <p>
+ * Jeder Knoten gehört zu einem Teilproblem, dessen Nummer (Farbe) in einem AtomicIntegerArray steht.
+ * Ein Teilproblem wird so bearbeitet:
+ * <ol>
+ * <li>Trimming: Knoten ohne Vorgänger oder ohne Nachfolger im Teilproblem bilden eine triviale Komponente
+ * und werden entfernt, solange es solche Knoten gibt.
+ * Bei Graphen mit Potenzgesetz-Verteilung der Grade sind das meist die allermeisten Komponenten.</li>
+ * <li>Von einem zufälligen Pivotknoten p aus werden die von p erreichbaren Knoten F
+ * und die Knoten B, von denen p erreichbar ist, ermittelt. F &cap; B ist die Komponente von p.</li>
+ * <li>F \ B, B \ F und der Rest sind voneinander unabhängige Teilprobleme, die parallel bearbeitet werden.</li>
+ * </ol>
+ * Die Erreichbarkeit wird ebenenweise ermittelt; große Ebenen werden parallel expandiert,
+ * wobei jeder Knoten mit compareAndSet seiner Farbe genau einmal beansprucht wird.
+ * <p>
+ * Die Komponenten sind in der Reihenfolge ihres ersten Knotens in getVertexSet() nummeriert,
+ * das Ergebnis ist also unabhängig von der Anzahl der Threads.
+ *
+ * @param <V> Knotentyp.
+ */
+public class ParallelStrongComponents<V> {
+	// Ebenen und Listen mit höchstens so vielen Knoten werden sequentiell bearbeitet:
+	private static final int GRAIN = 1024;
+
+	// Farbe der Knoten, die schon einer Komponente angehören:
+	private static final int DONE = -1;
+
+	private final VertexIndex<V> index;
+
+	// Nummer der Komponente jedes Knotens:
+	private final int[] comp;
+
+	// Anzahl der Komponenten:
+	private final int numberOfComp;
+
+	/**
+	 * Ermittelt alle strengen Komponenten im gemeinsamen ForkJoinPool.
+	 * @param g gerichteter Graph.
+	 */
+	public ParallelStrongComponents(DirectedGraph<V> g) {
+		this(g, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Ermittelt alle strengen Komponenten mit den Threads von pool.
+	 * @param g gerichteter Graph.
+	 * @param pool ForkJoinPool, dessen Parallelität die Anzahl der genutzten Kerne festlegt.
+	 */
+	public ParallelStrongComponents(DirectedGraph<V> g, ForkJoinPool pool) {
+		index = g.getVertexIndex();
+
+		int n = index.getNumberOfVertexes();
+
+		comp = new int[n];
+
+		if (n > 0) {
+			int[] all = new int[n];
+
+			Arrays.setAll(all, v -> v);
+
+			// Während der Berechnung steht in comp[v] ein Repräsentant der Komponente von v.
+			pool.invoke(new Subproblem(null, new Solver(index, comp), all, 0));
+		}
+
+		// Repräsentanten in der Reihenfolge der Knoten durchnummerieren:
+		int[] number = new int[n];
+		int count = 0;
+
+		Arrays.fill(number, -1);
+
+		for (int v = 0; v < n; v++) {
+			if (number[comp[v]] < 0) {
+				number[comp[v]] = count++;
+			}
+
+			comp[v] = number[comp[v]];
+		}
+
+		numberOfComp = count;
+	}
+
+	/**
+	 *
+	 * @return Anzahl der strengen Komponeneten.
+	 */
+	public int numberOfComp() {
+		return numberOfComp;
+	}
+
+	/**
+	 * Liefert die Nummer der Komponente von v zurück.
+	 * @param v Knoten
+	 * @throws IllegalArgumentException falls Knoten v nicht im Graph vorhanden ist.
+	 * @return Nummer der Komponente, 0 &lt;= Nummer &lt; numberOfComp().
+	 */
+	public int componentOf(V v) {
+		int i = index.indexOf(v);
+
+		if (i < 0) {
+			throw new IllegalArgumentException();
+		}
+
+		return comp[i];
+	}
+
+	/**
+	 * Prüft, ob v und w in derselben Komponente liegen.
+	 * @param v Knoten
+	 * @param w Knoten
+	 * @throws IllegalArgumentException falls v oder w nicht im Graph vorhanden ist.
+	 * @return true, falls v und w gegenseitig voneinander erreichbar sind.
+	 */
+	public boolean stronglyConnected(V v, V w) {
+		return componentOf(v) == componentOf(w);
+	}
+
+	/**
+	 * Listet die Knoten jeder Komponente in der Reihenfolge ihrer Nummern auf.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+
+		for (int i = 0; i < numberOfComp; ++i) {
+			sb.append("Component ").append(i).append(": ");
+
+			for (int v = 0; v < comp.length; v++) {
+				if (comp[v] == i) {
+					sb.append(index.vertexAt(v)).append(", ");
+				}
+			}
+
+			sb.append("\n");
+		}
+
+		return sb.toString();
+	}
+
+	/**
+	 * Gemeinsamer Zustand aller Teilprobleme.
+	 */
+	private static final class Solver {
+		private final VertexIndex<?> index;
+		private final int[] comp;
+
+		// Farbe jedes Knotens, anfangs 0:
+		private final AtomicIntegerArray color;
+		private final AtomicInteger nextColor = new AtomicInteger(1);
+
+		// Anzahl der Vorgänger und Nachfolger im selben Teilproblem, für das Trimming:
+		private final AtomicIntegerArray inLive;
+		private final AtomicIntegerArray outLive;
+
+		Solver(VertexIndex<?> index, int[] comp) {
+			this.index = index;
+			this.comp = comp;
+
+			int n = index.getNumberOfVertexes();
+
+			color = new AtomicIntegerArray(n);
+			inLive = new AtomicIntegerArray(n);
+			outLive = new AtomicIntegerArray(n);
+		}
+
+		/**
+		 * Ordnet alle Knoten der Liste, die keine Vorgänger oder keine Nachfolger mit Farbe c haben,
+		 * wiederholt einer eigenen Komponente zu.
+		 * @param list Knoten mit Farbe c.
+		 * @param c Farbe des Teilproblems.
+		 * @param buffer Puffer mit mindestens list.length Plätzen.
+		 * @return die übrigen Knoten mit Farbe c.
+		 */
+		int[] trim(int[] list, int c, int[] buffer) {
+			int[] frontier = buffer;
+			int[] next = new int[list.length];
+
+			int size = expand(list, list.length, frontier, (v, out) -> {
+				int in = 0;
+				int outDegree = 0;
+
+				for (int k = 0; k < index.inDegreeAt(v); k++) {
+					int w = index.predecessorAt(v, k);
+
+					if (w != v && color.get(w) == c) {
+						in++;
+					}
+				}
+
+				for (int k = 0; k < index.outDegreeAt(v); k++) {
+					int w = index.successorAt(v, k);
+
+					if (w != v && color.get(w) == c) {
+						outDegree++;
+					}
+				}
+
+				inLive.set(v, in);
+				outLive.set(v, outDegree);
+
+				if (in == 0 || outDegree == 0) {
+					out.accept(v);
+				}
+			});
+
+			int trimmed = 0;
+
+			// Erst wenn alle Zähler stehen, werden die Knoten der ersten Ebene entfernt.
+			for (int i = 0; i < size; i++) {
+				color.set(frontier[i], DONE);
+				comp[frontier[i]] = frontier[i];
+			}
+
+			while (size > 0) {
+				trimmed += size;
+
+				size = expand(frontier, size, next, (v, out) -> {
+					for (int k = 0; k < index.outDegreeAt(v); k++) {
+						int w = index.successorAt(v, k);
+
+						if (w != v && color.get(w) == c && inLive.decrementAndGet(w) == 0) {
+							claim(w, c, out);
+						}
+					}
+
+					for (int k = 0; k < index.inDegreeAt(v); k++) {
+						int w = index.predecessorAt(v, k);
+
+						if (w != v && color.get(w) == c && outLive.decrementAndGet(w) == 0) {
+							claim(w, c, out);
+						}
+					}
+				});
+
+				int[] t = frontier;
+				frontier = next;
+				next = t;
+			}
+
+			if (trimmed == 0) {
+				return list;
+			}
+
+			return filter(list, c, next);
+		}
+
+		private void claim(int w, int c, IntConsumer out) {
+			if (color.compareAndSet(w, c, DONE)) {
+				comp[w] = w;
+				out.accept(w);
+			}
+		}
+
+		/**
+		 * Bestimmt die Komponente eines zufälligen Pivotknotens und teilt die übrigen Knoten auf.
+		 * @param list Knoten mit Farbe c, nicht leer.
+		 * @param c Farbe des Teilproblems.
+		 * @param buffer Puffer mit mindestens list.length Plätzen.
+		 * @return Farben der Teilprobleme F \ B, B \ F und Rest.
+		 */
+		int[] split(int[] list, int c, int[] buffer) {
+			int pivot = list[ThreadLocalRandom.current().nextInt(list.length)];
+			int f = nextColor.getAndIncrement();
+			int b = nextColor.getAndIncrement();
+
+			int[] frontier = buffer;
+			int[] next = new int[list.length];
+
+			// Vorwärts: alle von pivot erreichbaren Knoten bekommen Farbe f.
+			color.set(pivot, f);
+			frontier[0] = pivot;
+
+			for (int size = 1; size > 0; ) {
+				size = expand(frontier, size, next, (v, out) -> {
+					for (int k = 0; k < index.outDegreeAt(v); k++) {
+						int w = index.successorAt(v, k);
+
+						if (color.compareAndSet(w, c, f)) {
+							out.accept(w);
+						}
+					}
+				});
+
+				int[] t = frontier;
+				frontier = next;
+				next = t;
+			}
+
+			// Rückwärts: Knoten mit Farbe f, von denen pivot erreichbar ist, bilden die Komponente von pivot,
+			// Knoten mit Farbe c, von denen pivot erreichbar ist, bekommen Farbe b.
+			color.set(pivot, DONE);
+			comp[pivot] = pivot;
+			frontier[0] = pivot;
+
+			for (int size = 1; size > 0; ) {
+				size = expand(frontier, size, next, (v, out) -> {
+					for (int k = 0; k < index.inDegreeAt(v); k++) {
+						int w = index.predecessorAt(v, k);
+
+						if (color.compareAndSet(w, f, DONE)) {
+							comp[w] = pivot;
+							out.accept(w);
+						} else if (color.compareAndSet(w, c, b)) {
+							out.accept(w);
+						}
+					}
+				});
+
+				int[] t = frontier;
+				frontier = next;
+				next = t;
+			}
+
+			return new int[] {f, b, c};
+		}
+
+		/**
+		 * @return die Knoten der Liste mit Farbe c.
+		 */
+		int[] filter(int[] list, int c, int[] buffer) {
+			int size = expand(list, list.length, buffer, (v, out) -> {
+				if (color.get(v) == c) {
+					out.accept(v);
+				}
+			});
+
+			return Arrays.copyOf(buffer, size);
+		}
+	}
+
+	/**
+	 * Ein Schritt einer ebenenweisen Bearbeitung.
+	 */
+	@FunctionalInterface
+	private interface Step {
+		/**
+		 * Bearbeitet Knoten v und übergibt die Knoten der nächsten Ebene an out.
+		 */
+		void visit(int v, IntConsumer out);
+	}
+
+	/**
+	 * Wendet step auf in[0], ..., in[size-1] an und sammelt die Knoten der nächsten Ebene in out.
+	 * Große Ebenen werden auf die Threads des aktuellen ForkJoinPool verteilt.
+	 * @return Anzahl der Knoten in out.
+	 */
+	private static int expand(int[] in, int size, int[] out, Step step) {
+		if (size <= GRAIN) {
+			Buffer buffer = new Buffer(out);
+
+			for (int i = 0; i < size; i++) {
+				step.visit(in[i], buffer);
+			}
+
+			return buffer.size;
+		}
+
+		AtomicInteger tail = new AtomicInteger();
+
+		new Expand(in, 0, size, out, tail, step).invoke();
+
+		return tail.get();
+	}
+
+	private static final class Expand extends RecursiveAction {
+		private final int[] in;
+		private final int from;
+		private final int to;
+		private final int[] out;
+		private final AtomicInteger tail;
+		private final Step step;
+
+		Expand(int[] in, int from, int to, int[] out, AtomicInteger tail, Step step) {
+			this.in = in;
+			this.from = from;
+			this.to = to;
+			this.out = out;
+			this.tail = tail;
+			this.step = step;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > GRAIN) {
+				int middle = (from + to) >>> 1;
+
+				invokeAll(new Expand(in, from, middle, out, tail, step), new Expand(in, middle, to, out, tail, step));
+				return;
+			}
+
+			Buffer buffer = new Buffer(new int[64]);
+
+			for (int i = from; i < to; i++) {
+				step.visit(in[i], buffer);
+			}
+
+			// Pro Blatt wird nur einmal ein Bereich in out reserviert.
+			int start = tail.getAndAdd(buffer.size);
+
+			System.arraycopy(buffer.vertices, 0, out, start, buffer.size);
+		}
+	}
+
+	private static final class Buffer implements IntConsumer {
+		private int[] vertices;
+		private int size = 0;
+
+		Buffer(int[] vertices) {
+			this.vertices = vertices;
+		}
+
+		@Override
+		public void accept(int v) {
+			if (size == vertices.length) {
+				vertices = Arrays.copyOf(vertices, 2 * size);
+			}
+
+			vertices[size++] = v;
+		}
+	}
+
+	/**
+	 * Ein Teilproblem aus allen Knoten einer Farbe.
+	 * Die Teilprobleme bilden einen Baum aus CountedCompletern, so dass kein Thread auf ein Teilproblem
+	 * warten muss und lange Ketten von Teilproblemen nicht den Aufrufstack füllen.
+	 */
+	private static final class Subproblem extends CountedCompleter<Void> {
+		private final Solver solver;
+		private final int[] list;
+		private final int c;
+
+		Subproblem(Subproblem parent, Solver solver, int[] list, int c) {
+			super(parent);
+			this.solver = solver;
+			this.list = list;
+			this.c = c;
+		}
+
+		@Override
+		public void compute() {
+			int[] buffer = new int[list.length];
+			int[] rest = solver.trim(list, c, buffer);
+
+			if (rest.length > 0) {
+				for (int color : solver.split(rest, c, buffer)) {
+					int[] part = solver.filter(rest, color, buffer);
+
+					if (part.length > 0) {
+						addToPendingCount(1);
+						new Subproblem(this, solver, part, color).fork();
+					}
+				}
+			}
+
+			tryComplete();
+		}
+	}
+
+	public static void main(String[] args) {
+		DirectedGraph<Integer> g = new AdjacencyListDirectedGraph<>();
+		g.addEdge(1,2);
+		g.addEdge(1,3);
+		g.addEdge(2,1);
+		g.addEdge(2,3);
+		g.addEdge(3,1);
+
+		g.addEdge(1,4);
+		g.addEdge(5,4);
+
+		g.addEdge(5,7);
+		g.addEdge(6,5);
+		g.addEdge(7,6);
+
+		g.addEdge(7,8);
+		g.addEdge(8,2);
+
+		ParallelStrongComponents<Integer> sc = new ParallelStrongComponents<>(g);
+
+		System.out.println(sc.numberOfComp());  // 4
+
+		System.out.println(sc);
+			// Component 0: 1, 2, 3,
+			// Component 1: 4,
+			// Component 2: 5, 6, 7,
+			// Component 3: 8,
+
+		System.out.println(sc.stronglyConnected(5, 7));	// true
+		System.out.println(sc.stronglyConnected(8, 2));	// false
+	}
+}
@@ -6,6 +6,7 @@ package directedGraph;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.util.*;
+import java.util.function.ToIntFunction;
 
 /**
  * Klasse für Bestimmung aller strengen Komponenten.
@@ -15,74 +16,130 @@ import java.util.*;
  * @param <V> Knotentyp.
  */
 public class StrongComponents<V> {
-	private final Map<Integer,Set<V>> comp = new TreeMap<>();
-	
+	private final VertexIndex<V> index;
+
+	// Nummer der Komponente jedes Knotens:
+	private final int[] comp;
+
 	// Anzahl der Komponenten:
 	private int numberOfComp = 0;
 	
 	/**
 	 * Ermittelt alle strengen Komponenten mit
 	 * dem Kosaraju-Sharir Algorithmus.
+	 * Die zweite Tiefensuche läuft über die Vorgänger,
+	 * so dass der invertierte Graph nicht erzeugt werden muss.
+	 * Beide Tiefensuchen laufen iterativ mit DepthFirstSearch.
 	 * @param g gerichteter Graph.
 	 */
 	public StrongComponents(DirectedGraph<V> g) {
-		List<V> invPostOrder = new ArrayList<>();
+		index = g.getVertexIndex();
 
-		List<V> postOrder = new DepthFirstOrder<>(g).postOrder();
+		int n = index.getNumberOfVertexes();
 
-		for (int i = postOrder.size() - 1; i >= 0; i--) {
-			invPostOrder.add(postOrder.get(i));
-		}
+		int[] postOrder = new DepthFirstOrder<>(index).postOrderIndexes();
+
+		comp = new int[n];
 
-		DirectedGraph<V> invG = g.invert();
+		// Die zweite Tiefensuche läuft rückwärts über die Vorgänger.
+		DepthFirstSearch<V> dfs = new DepthFirstSearch<>(index, true);
 
-		Set<V> visited = new HashSet<>();
+		DepthFirstSearch.Visitor visitor = new DepthFirstSearch.Visitor() {
+			@Override
+			public void postVisit(int v, int parent) {
+				comp[v] = numberOfComp;
+			}
+		};
 
-		int i = 0;
+		for (int i = n - 1; i >= 0; i--) {
+			int v = postOrder[i];
 
-		for (V v : invPostOrder) {
-			if (!visited.contains(v)) {
-				visitDF(i, invG, v, visited);
+			if (!dfs.isVisited(v)) {
+				dfs.search(v, visitor);
 
 				numberOfComp++;
-
-				++i;
 			}
 		}
 	}
 
-	private void visitDF(int component, DirectedGraph<V> g, V v, Set<V> visited) {
-		visited.add(v);
+	/**
+	 * 
+	 * @return Anzahl der strengen Komponeneten.
+	 */
+	public int numberOfComp() {
+		return numberOfComp;
+	}
 
-		for (V w : g.getSuccessorVertexSet(v)) {
-			if (!visited.contains(w)) {
-				visitDF(component, g, w, visited);
-			}
-		}
+	/**
+	 * Liefert die Nummer der Komponente von v zurück.
+	 * @param v Knoten
+	 * @throws IllegalArgumentException falls Knoten v nicht im Graph vorhanden ist.
+	 * @return Nummer der Komponente, 0 &lt;= Nummer &lt; numberOfComp().
+	 */
+	public int componentOf(V v) {
+		int i = index.indexOf(v);
 
-		if (!comp.containsKey(component)) {
-			comp.put(component, new TreeSet<>());
+		if (i < 0) {
+			throw new IllegalArgumentException();
 		}
 
-		comp.get(component).add(v);
+		return comp[i];
 	}
-	
+
 	/**
-	 * 
-	 * @return Anzahl der strengen Komponeneten.
+	 * Prüft, ob zwei Zerlegungen der Knoten in Komponenten übereinstimmen,
+	 * d.h. ob sie gleich viele Komponenten haben und ihre Nummern eineindeutig zusammenpassen.
+	 * Die Nummerierung der Komponenten darf sich unterscheiden.
+	 * @param vertices alle Knoten des Graphen.
+	 * @param n Anzahl der Komponenten der ersten Zerlegung.
+	 * @param comp Nummer der Komponente eines Knotens in der ersten Zerlegung, 0 &lt;= Nummer &lt; n.
+	 * @param otherN Anzahl der Komponenten der zweiten Zerlegung.
+	 * @param otherComp Nummer der Komponente eines Knotens in der zweiten Zerlegung.
+	 * @return true, falls beide Zerlegungen dieselben Komponenten liefern.
 	 */
-	public int numberOfComp() {
-		return numberOfComp;
+	static <V> boolean sameComponents(Set<V> vertices, int n, ToIntFunction<V> comp, int otherN, ToIntFunction<V> otherComp) {
+		if (n != otherN) {
+			return false;
+		}
+
+		int[] otherOf = new int[n];
+
+		Arrays.fill(otherOf, -1);
+
+		for (V v : vertices) {
+			int c = comp.applyAsInt(v);
+
+			if (otherOf[c] < 0) {
+				otherOf[c] = otherComp.applyAsInt(v);
+			} else if (otherOf[c] != otherComp.applyAsInt(v)) {
+				return false;
+			}
+		}
+
+		return true;
 	}
 
+	/**
+	 * Listet die Knoten jeder Komponente in der Reihenfolge ihrer Nummern auf.
+	 */
 	@Override
 	public String toString() {
+		List<List<V>> components = new ArrayList<>();
+
+		for (int i = 0; i < numberOfComp; ++i) {
+			components.add(new ArrayList<>());
+		}
+
+		for (int v = 0; v < comp.length; v++) {
+			components.get(comp[v]).add(index.vertexAt(v));
+		}
+
 		StringBuilder sb = new StringBuilder();
 
-		for (int i = 0; i < comp.size(); ++i) {
+		for (int i = 0; i < numberOfComp; ++i) {
 			sb.append("Component ").append(i).append(": ");
 
-			for (V v : comp.get(i)) {
+			for (V v : components.get(i)) {
 				sb.append(v).append(", ");
 			}
 
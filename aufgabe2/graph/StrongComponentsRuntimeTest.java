@@ -0,0 +1,148 @@
+package directedGraph;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Skalierungsmessung für ParallelStrongComponents.
+ * <p>
+ * Auf einem synthetischen Graphen, dessen Ein- und Ausgangsgrade einem Potenzgesetz folgen
+ * (ähnlich wie bei gecrawlten Link-Graphen), wird ParallelStrongComponents mit 1 bis N Threads gemessen
+ * und mit den sequentiellen Algorithmen verglichen.
+ * Bei jeder Anzahl von Threads wird geprüft, dass dieselben Komponenten wie bei Tarjan herauskommen.
+ */
+public class StrongComponentsRuntimeTest {
+
+    private static final int WARMUPS = 3;
+
+    private static final int MEASUREMENTS = 5;
+
+    // Schiefe der Verteilung der Knoten auf die Kanten, siehe powerLawGraph:
+    private static final double SKEW = 6;
+
+    /**
+     * @param args optional Anzahl Knoten (Standard 1000000), mittlerer Ausgangsgrad (Standard 4)
+     *             und größte Anzahl Threads (Standard Anzahl Kerne).
+     */
+    public static void main(String[] args) {
+        int n = (args.length > 0) ? Integer.parseInt(args[0]) : 1_000_000;
+        int degree = (args.length > 1) ? Integer.parseInt(args[1]) : 4;
+        int maxThreads = (args.length > 2) ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        DirectedGraph<Integer> g = powerLawGraph(n, degree, new Random(1));
+
+        System.out.printf("%d Knoten, %d Kanten, %d Kerne%n",
+                g.getNumberOfVertexes(), g.getNumberOfEdges(), Runtime.getRuntime().availableProcessors());
+
+        TarjanStrongComponents<Integer> tarjan = new TarjanStrongComponents<>(g);
+
+        int trivial = 0;
+
+        for (Set<Integer> component : tarjan.getComponents()) {
+            if (component.size() == 1) {
+                trivial++;
+            }
+        }
+
+        System.out.printf("%d Komponenten, davon %d trivial%n", tarjan.numberOfComp(), trivial);
+        System.out.printf("Kosaraju-Sharir: %8.1f ms%n", measure(() -> new StrongComponents<>(g)));
+        System.out.printf("Tarjan:          %8.1f ms%n", measure(() -> new TarjanStrongComponents<>(g)));
+
+        double single = 0;
+
+        for (int threads = 1; threads <= maxThreads; threads++) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+
+            try {
+                ParallelStrongComponents<Integer> parallel = new ParallelStrongComponents<>(g, pool);
+
+                if (!StrongComponents.sameComponents(g.getVertexSet(),
+                        parallel.numberOfComp(), parallel::componentOf, tarjan.numberOfComp(), tarjan::componentOf)) {
+                    System.out.printf("Parallel (%d Threads): andere Komponenten als Tarjan!%n", threads);
+                    return;
+                }
+
+                double ms = measure(() -> new ParallelStrongComponents<>(g, pool));
+
+                if (threads == 1) {
+                    single = ms;
+                }
+
+                System.out.printf("Parallel (%2d Threads): %8.1f ms, Speedup %.2f%n", threads, ms, single / ms);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Erzeugt einen zufälligen Graphen mit n Knoten und etwa n * degree Kanten (Mehrfachkanten fallen weg).
+     * Der Start- und der Zielknoten jeder Kante werden unabhängig gezogen,
+     * mit Rang r = n * u^SKEW für gleichverteiltes u aus [0, 1).
+     * Damit folgen Ein- und Ausgangsgrade einem Potenzgesetz mit Exponent 1 + SKEW / (SKEW - 1) = 2.2
+     * wie bei Web-Graphen, und die Knoten mit den kleinsten Rängen haben nur etwa degree / SKEW Kanten,
+     * also oft gar keinen Vorgänger oder Nachfolger.
+     * Ränge für Start- und Zielknoten sind verschieden zufällig vergeben,
+     * so dass Knoten mit vielen Links und Knoten, auf die viele Links zeigen, verschieden sind.
+     * Beim Standardgrad 4 bilden so drei Viertel bis vier Fünftel der Knoten triviale Komponenten, die das Trimming entfernt,
+     * und die übrigen Knoten zum großen Teil eine große Komponente.
+     */
+    private static DirectedGraph<Integer> powerLawGraph(int n, int degree, Random random) {
+        CsrDirectedGraph.Builder<Integer> builder = new CsrDirectedGraph.Builder<>();
+
+        for (int v = 0; v < n; v++) {
+            builder.addVertex(v);
+        }
+
+        // Knoten mit Rang r als Startknoten:
+        int[] source = new int[n];
+
+        Arrays.setAll(source, v -> v);
+
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int v = source[i];
+
+            source[i] = source[j];
+            source[j] = v;
+        }
+
+        for (long i = (long) n * degree; i > 0; i--) {
+            int v = source[powerLawRank(n, random)];
+            int w = powerLawRank(n, random);
+
+            if (v != w) {
+                builder.addEdge(v, w);
+            }
+        }
+
+        return builder.build();
+    }
+
+    private static int powerLawRank(int n, Random random) {
+        return (int) (n * Math.pow(random.nextDouble(), SKEW));
+    }
+
+    /**
+     * @return kürzeste Laufzeit in ms aus MEASUREMENTS Durchläufen nach WARMUPS Durchläufen zum Aufwärmen.
+     */
+    private static double measure(Runnable algorithm) {
+        long best = Long.MAX_VALUE;
+
+        for (int i = 0; i < WARMUPS + MEASUREMENTS; i++) {
+            long start = System.nanoTime();
+
+            algorithm.run();
+
+            long time = System.nanoTime() - start;
+
+            if (i >= WARMUPS) {
+                best = Math.min(best, time);
+            }
+        }
+
+        return best / 1e6;
+    }
+}
@@ -0,0 +1,281 @@
+package directedGraph;
+
+import java.util.AbstractList;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Klasse für Bestimmung aller strengen Komponenten.
+ * Tarjan Algorithmus.
+ * <p>
+ * Im Gegensatz zum Kosaraju-Sharir Algorithmus genügt eine einzige Tiefensuche über den Graphen,
+ * die iterativ mit DepthFirstSearch läuft.
+ * Für jeden Knoten wird nur die Nummer seiner Komponente in einem int-Array gespeichert.
+ * Die Komponenten sind in umgekehrter topologischer Reihenfolge nummeriert:
+ * Es gibt keine Kante von einer Komponente zu einer mit größerer Nummer.
+ * Die Knotenmengen der Komponenten werden erst beim ersten Zugriff mit getComponent ermittelt.
+ *
+ * @param <V> Knotentyp.
+ */
+public class TarjanStrongComponents<V> {
+	private final VertexIndex<V> index;
+
+	// Nummer der Komponente jedes Knotens:
+	private final int[] comp;
+
+	// Anzahl der Komponenten:
+	private int numberOfComp = 0;
+
+	// Knoten nach Komponenten sortiert; die Knoten von Komponente i stehen in members[offsets[i]], ..., members[offsets[i+1]-1].
+	// Werden erst bei Bedarf erzeugt.
+	private int[] offsets;
+	private int[] members;
+
+	/**
+	 * Ermittelt alle strengen Komponenten mit dem Tarjan Algorithmus.
+	 * @param g gerichteter Graph.
+	 */
+	public TarjanStrongComponents(DirectedGraph<V> g) {
+		index = g.getVertexIndex();
+
+		int n = index.getNumberOfVertexes();
+
+		comp = new int[n];
+
+		Arrays.fill(comp, -1);
+
+		// Pre-Order-Nummer und kleinste Pre-Order-Nummer, die über den Teilbaum und eine weitere Kante
+		// erreichbar ist und noch keiner Komponente angehört:
+		int[] pre = new int[n];
+		int[] low = new int[n];
+
+		// Besuchte Knoten, die noch keiner Komponente angehören:
+		int[] stack = new int[n];
+
+		new DepthFirstSearch<>(index).searchAll(new DepthFirstSearch.Visitor() {
+			int numberOfPre = 0;
+			int top = 0;
+
+			@Override
+			public void preVisit(int v) {
+				pre[v] = numberOfPre++;
+				low[v] = pre[v];
+				stack[top++] = v;
+			}
+
+			@Override
+			public boolean edge(int v, int w, DepthFirstSearch.EdgeType type) {
+				if (type != DepthFirstSearch.EdgeType.TREE && comp[w] < 0) {
+					low[v] = Math.min(low[v], pre[w]);
+				}
+
+				return true;
+			}
+
+			@Override
+			public void postVisit(int v, int parent) {
+				if (low[v] == pre[v]) {
+					// v ist die Wurzel einer Komponente aus v und den Knoten darüber im Stack.
+					int w;
+
+					do {
+						w = stack[--top];
+						comp[w] = numberOfComp;
+					} while (w != v);
+
+					numberOfComp++;
+				}
+
+				if (parent >= 0) {
+					low[parent] = Math.min(low[parent], low[v]);
+				}
+			}
+		});
+	}
+
+	/**
+	 *
+	 * @return Anzahl der strengen Komponeneten.
+	 */
+	public int numberOfComp() {
+		return numberOfComp;
+	}
+
+	/**
+	 * Liefert die Nummer der Komponente von v zurück.
+	 * @param v Knoten
+	 * @throws IllegalArgumentException falls Knoten v nicht im Graph vorhanden ist.
+	 * @return Nummer der Komponente, 0 &lt;= Nummer &lt; numberOfComp().
+	 */
+	public int componentOf(V v) {
+		int i = index.indexOf(v);
+
+		if (i < 0) {
+			throw new IllegalArgumentException();
+		}
+
+		return comp[i];
+	}
+
+	/**
+	 * Prüft, ob v und w in derselben Komponente liegen.
+	 * @param v Knoten
+	 * @param w Knoten
+	 * @throws IllegalArgumentException falls v oder w nicht im Graph vorhanden ist.
+	 * @return true, falls v und w gegenseitig voneinander erreichbar sind.
+	 */
+	public boolean stronglyConnected(V v, V w) {
+		return componentOf(v) == componentOf(w);
+	}
+
+	/**
+	 * Liefert eine nicht modifizierbare Sicht (unmodifiable view) auf die Knoten der Komponente i zurück,
+	 * in der Reihenfolge der Knotenmenge des Graphen.
+	 * @param i Nummer der Komponente.
+	 * @return Knotenmenge der Komponente.
+	 */
+	public Set<V> getComponent(int i) {
+		if (i < 0 || i >= numberOfComp) {
+			throw new IndexOutOfBoundsException(i);
+		}
+
+		if (members == null) {
+			groupMembers();
+		}
+
+		int from = offsets[i];
+		int to = offsets[i + 1];
+
+		return new AbstractSet<>() {
+			@Override
+			public Iterator<V> iterator() {
+				return new Iterator<>() {
+					int k = from;
+
+					@Override
+					public boolean hasNext() {
+						return k < to;
+					}
+
+					@Override
+					public V next() {
+						if (k >= to) {
+							throw new NoSuchElementException();
+						}
+
+						return index.vertexAt(members[k++]);
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return to - from;
+			}
+
+			@Override
+			@SuppressWarnings("unchecked")
+			public boolean contains(Object o) {
+				int v = index.indexOf((V) o);
+
+				return v >= 0 && comp[v] == i;
+			}
+		};
+	}
+
+	/**
+	 * Liefert eine nicht modifizierbare Liste mit den Sichten auf alle Komponenten zurück.
+	 * @return Komponenten, nach Nummer geordnet.
+	 */
+	public List<Set<V>> getComponents() {
+		return new AbstractList<>() {
+			@Override
+			public Set<V> get(int i) {
+				return getComponent(i);
+			}
+
+			@Override
+			public int size() {
+				return numberOfComp;
+			}
+		};
+	}
+
+	/**
+	 * Sortiert die Knoten mit Counting Sort nach Komponenten.
+	 */
+	private void groupMembers() {
+		int[] start = new int[numberOfComp + 1];
+
+		for (int c : comp) {
+			start[c + 1]++;
+		}
+
+		for (int i = 0; i < numberOfComp; i++) {
+			start[i + 1] += start[i];
+		}
+
+		int[] next = Arrays.copyOf(start, numberOfComp);
+		int[] sorted = new int[comp.length];
+
+		for (int v = 0; v < comp.length; v++) {
+			sorted[next[comp[v]]++] = v;
+		}
+
+		offsets = start;
+		members = sorted;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+
+		for (int i = 0; i < numberOfComp; ++i) {
+			sb.append("Component ").append(i).append(": ");
+
+			for (V v : getComponent(i)) {
+				sb.append(v).append(", ");
+			}
+
+			sb.append("\n");
+		}
+
+		return sb.toString();
+	}
+
+	public static void main(String[] args) {
+		DirectedGraph<Integer> g = new AdjacencyListDirectedGraph<>();
+		g.addEdge(1,2);
+		g.addEdge(1,3);
+		g.addEdge(2,1);
+		g.addEdge(2,3);
+		g.addEdge(3,1);
+
+		g.addEdge(1,4);
+		g.addEdge(5,4);
+
+		g.addEdge(5,7);
+		g.addEdge(6,5);
+		g.addEdge(7,6);
+
+		g.addEdge(7,8);
+		g.addEdge(8,2);
+
+		TarjanStrongComponents<Integer> sc = new TarjanStrongComponents<>(g);
+
+		System.out.println(sc.numberOfComp());  // 4
+
+		System.out.println(sc);
+			// Component 0: 4,
+			// Component 1: 1, 2, 3,
+			// Component 2: 8,
+			// Component 3: 5, 6, 7,
+
+		System.out.println(sc.stronglyConnected(5, 7));	// true
+		System.out.println(sc.getComponents().get(1).contains(8));	// false
+	}
+}
@@ -4,6 +4,7 @@
 package directedGraph;
 
 import java.security.cert.CollectionCertStoreParameters;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
@@ -18,23 +19,42 @@ import java.util.Queue;
  * @param <V> Knotentyp.
  */
 public class TopologicalSort<V> {
-    private List<V> ts = new LinkedList<>(); // topologisch sortierte Folge
+    private List<V> ts = new ArrayList<>(); // topologisch sortierte Folge
 
 	/**
 	 * Führt eine topologische Sortierung für g mit Tiefensuche durch.
+	 * Eine einzige iterative Tiefensuche mit DepthFirstSearch liefert die umgekehrte Post-Order-Reihenfolge
+	 * und bricht ab, sobald eine Rückwärtskante einen Zyklus anzeigt.
 	 * @param g gerichteter Graph.
 	 */
 	public TopologicalSort(DirectedGraph<V> g) {
-		if (new DirectedCycle<>(g).hasCycle()) {
-			return;
-		}
+		VertexIndex<V> index = g.getVertexIndex();
+
+		int n = index.getNumberOfVertexes();
+
+		// Umgekehrte Post-Order-Reihenfolge, von hinten gefüllt:
+		int[] order = new int[n];
 
-		DepthFirstOrder<V> dfo = new DepthFirstOrder<>(g);
+		boolean acyclic = new DepthFirstSearch<>(index).searchAll(new DepthFirstSearch.Visitor() {
+			int next = n;
 
-		List<V> postOrder = dfo.postOrder();
+			@Override
+			public void postVisit(int v, int parent) {
+				order[--next] = v;
+			}
+
+			@Override
+			public boolean edge(int v, int w, DepthFirstSearch.EdgeType type) {
+				return type != DepthFirstSearch.EdgeType.BACK;
+			}
+		});
+
+		if (!acyclic) {
+			return;
+		}
 
-		for (int i = postOrder.size() - 1; i >= 0; i--) {
-			ts.add(postOrder.get(i));
+		for (int v : order) {
+			ts.add(index.vertexAt(v));
 		}
     }
     
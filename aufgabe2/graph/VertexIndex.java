@@ -0,0 +1,56 @@
+package directedGraph;
+
+/**
+ * Nummerierung der Knoten eines Graphen mit 0, ..., n-1 und Zugriff auf Nachfolger und Vorgänger über diese Nummern.
+ * Graphalgorithmen können damit ihre Daten zu den Knoten in Arrays und BitSets statt in Maps und Sets ablegen,
+ * so dass bei einem Besuch eines Knotens kein Knoten gehasht oder verglichen werden muss.
+ * <p>
+ * Die Knoten sind in der Reihenfolge von getVertexSet() des Graphen nummeriert,
+ * und Nachfolger und Vorgänger eines Knotens sind aufsteigend nach Nummer sortiert.
+ *
+ * @param <V> Knotentyp.
+ */
+public interface VertexIndex<V> {
+    /**
+     * @return Anzahl n der Knoten.
+     */
+    int getNumberOfVertexes();
+
+    /**
+     * @param v Knoten
+     * @return Nummer von v, oder -1 falls v nicht im Graph vorhanden ist.
+     */
+    int indexOf(V v);
+
+    /**
+     * @param i Nummer eines Knotens, 0 &lt;= i &lt; n.
+     * @return Knoten mit Nummer i.
+     */
+    V vertexAt(int i);
+
+    /**
+     * @param v Nummer eines Knotens.
+     * @return Ausgangsgrad des Knotens.
+     */
+    int outDegreeAt(int v);
+
+    /**
+     * @param v Nummer eines Knotens.
+     * @param k Nummer des Nachfolgers, 0 &lt;= k &lt; outDegreeAt(v).
+     * @return Nummer des k-ten Nachfolgers.
+     */
+    int successorAt(int v, int k);
+
+    /**
+     * @param v Nummer eines Knotens.
+     * @return Eingangsgrad des Knotens.
+     */
+    int inDegreeAt(int v);
+
+    /**
+     * @param v Nummer eines Knotens.
+     * @param k Nummer des Vorgängers, 0 &lt;= k &lt; inDegreeAt(v).
+     * @return Nummer des k-ten Vorgängers.
+     */
+    int predecessorAt(int v, int k);
+}
@@ -0,0 +1,647 @@
+package dictionary;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Dictionary that chooses its implementation by the observed workload.
+ * <p>
+ * Every WINDOW operations the mix of searches, inserts of new keys, removes and scanned entries,
+ * the size and the fraction of searches in ascending key order (locality) are fed into a cost model,
+ * which estimates the cost of the window for every representation.
+ * If another representation would have been considerably cheaper, and the savings expected over the next HORIZON windows
+ * exceed the cost of copying all entries, the dictionary migrates to it.
+ * <p>
+ * The migration runs in a background thread and does not block callers:
+ * the old dictionary is only read while it is copied, changes are collected in a delta,
+ * and searches look into the delta first. Once the copy is complete, the delta is applied to it
+ * and the new dictionary replaces the old one.
+ * Every migration decision is logged.
+ * <p>
+ * All operations are synchronized on this dictionary.
+ * Like Collections.synchronizedMap, iterating requires the caller to synchronize on this dictionary manually
+ * if other threads may modify it. A running migration never modifies the entries an iterator is working on,
+ * and values set by a cursor or on the entries of an iterator are not lost if a migration starts during the scan.
+ *
+ * @param <K> Key.
+ * @param <V> Value.
+ */
+public class AdaptiveDictionary<K, V> implements Dictionary<K, V> {
+
+    /**
+     * Implementations an AdaptiveDictionary can switch between.
+     */
+    public enum Representation {
+        SORTED_ARRAY, HASH, BINARY_TREE
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(AdaptiveDictionary.class.getName());
+
+    private static final int WINDOW = 1024;
+    private static final int HORIZON = 8;
+
+    // Another representation must be cheaper than this fraction of the current one.
+    private static final double HYSTERESIS = 0.75;
+
+    // Marks removed keys in the delta.
+    private static final Object REMOVED = new Object();
+
+    private final Comparator<? super K> cmp;
+
+    private Dictionary<K, V> current;
+    private Representation representation = Representation.HASH;
+
+    // Changes made while migrating; current is only read as long as the delta exists.
+    private Dictionary<K, Object> delta;
+    private int size;
+
+    private int operations = 0;
+    private int searches = 0;
+    private int inserts = 0;
+    private int removes = 0;
+    private long scanned = 0;
+    private int ascending = 0;
+    private K previousKey;
+
+    public AdaptiveDictionary() {
+        this(null);
+    }
+
+    public AdaptiveDictionary(Comparator<? super K> cmp) {
+        if (cmp == null) {
+            this.cmp = (x, y) -> ((Comparable<? super K>) x).compareTo(y);
+        } else {
+            this.cmp = cmp;
+        }
+
+        current = create(representation);
+    }
+
+    private Dictionary<K, V> create(Representation representation) {
+        switch (representation) {
+            case SORTED_ARRAY:
+                return new SortedArrayDictionary<>(cmp);
+            case BINARY_TREE:
+                return new BinaryTreeDictionary<>(cmp);
+            default:
+                return new HashDictionary<>();
+        }
+    }
+
+    /**
+     * Returns the representation currently used; during a migration, the one migrated from.
+     *
+     * @return current representation.
+     */
+    public synchronized Representation getRepresentation() {
+        return representation;
+    }
+
+    /**
+     * Waits until a running migration has finished.
+     *
+     * @throws InterruptedException if the current thread is interrupted while waiting.
+     */
+    public synchronized void awaitMigration() throws InterruptedException {
+        while (delta != null) {
+            wait();
+        }
+    }
+
+    @Override
+    public synchronized V insert(K key, V value) {
+        V oldValue;
+
+        if (delta == null) {
+            oldValue = current.insert(key, value);
+        } else {
+            oldValue = searchOverlay(key);
+
+            delta.insert(key, value);
+
+            if (oldValue == null) {
+                ++size;
+            }
+        }
+
+        if (oldValue == null) {
+            ++inserts;
+        } else {
+            ++searches;
+        }
+
+        record(key);
+
+        return oldValue;
+    }
+
+    @Override
+    public synchronized V search(K key) {
+        ++searches;
+
+        record(key);
+
+        return (delta == null) ? current.search(key) : searchOverlay(key);
+    }
+
+    @Override
+    public synchronized void searchAll(K[] keys, V[] out) {
+        if (out.length < keys.length) {
+            throw new IllegalArgumentException("out is shorter than keys");
+        }
+
+        if (delta == null) {
+            current.searchAll(keys, out);
+        } else {
+            for (int i = 0; i < keys.length; i++) {
+                out[i] = searchOverlay(keys[i]);
+            }
+        }
+
+        for (K key : keys) {
+            ++searches;
+
+            record(key);
+        }
+    }
+
+    @Override
+    public synchronized V remove(K key) {
+        V oldValue;
+
+        if (delta == null) {
+            oldValue = current.remove(key);
+        } else {
+            oldValue = searchOverlay(key);
+
+            if (oldValue != null) {
+                delta.insert(key, REMOVED);
+                --size;
+            }
+        }
+
+        ++removes;
+
+        record(key);
+
+        return oldValue;
+    }
+
+    @Override
+    public synchronized int size() {
+        return (delta == null) ? current.size() : size;
+    }
+
+    /**
+     * During a migration, the delta is included, but not the copy being built by the migration thread.
+     * Keys and values changed by the delta may be counted twice then.
+     */
+    @Override
+    public synchronized MemoryFootprint footprint(boolean withPayload) {
+        // cmp, current, representation, delta and previousKey; size, operations, searches, inserts, removes, ascending and scanned
+        MemoryFootprint footprint = new MemoryFootprint(
+                MemoryFootprint.object(5L * MemoryFootprint.REFERENCE + 6 * Integer.BYTES + Long.BYTES), 0, 0)
+                .plus(current.footprint(withPayload));
+
+        return (delta == null) ? footprint : footprint.plus(delta.footprint(withPayload));
+    }
+
+    @SuppressWarnings("unchecked")
+    private V searchOverlay(K key) {
+        Object value = delta.search(key);
+
+        if (value == REMOVED) {
+            return null;
+        }
+
+        return (value != null) ? (V) value : current.search(key);
+    }
+
+    /**
+     * Must be called and used while synchronized on this dictionary.
+     * Like the values set by the cursor, values set on the entries reach the dictionary
+     * even if a migration has started in the meantime.
+     */
+    @Override
+    public synchronized Iterator<Entry<K, V>> iterator() {
+        if (delta == null) {
+            recordScan();
+
+            Dictionary<K, V> source = current;
+            Iterator<Entry<K, V>> iterator = source.iterator();
+
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public Entry<K, V> next() {
+                    return new ScannedEntry(source, iterator.next());
+                }
+            };
+        }
+
+        Cursor<K, V> cursor = cursor();
+
+        return new Iterator<>() {
+            boolean advanced = cursor.advance();
+
+            @Override
+            public boolean hasNext() {
+                return advanced;
+            }
+
+            @Override
+            public Entry<K, V> next() {
+                if (!advanced) {
+                    throw new NoSuchElementException();
+                }
+
+                Entry<K, V> entry = new ScannedEntry(null, new Entry<>(cursor.key(), cursor.value()));
+
+                advanced = cursor.advance();
+
+                return entry;
+            }
+        };
+    }
+
+    /**
+     * Must be called and used while synchronized on this dictionary.
+     * During a migration, the cursor returns the entries of the old dictionary not changed by the delta,
+     * followed by the new entries of the delta.
+     * <p>
+     * The operations of the caller may start a migration while the cursor is used.
+     * From then on setValue inserts the value like insert, so that it reaches the delta
+     * instead of the old dictionary, which is being copied.
+     */
+    @Override
+    public synchronized Cursor<K, V> cursor() {
+        recordScan();
+
+        if (delta == null) {
+            Dictionary<K, V> source = current;
+            Cursor<K, V> cursor = source.cursor();
+
+            return new Cursor<>() {
+                @Override
+                public boolean advance() {
+                    return cursor.advance();
+                }
+
+                @Override
+                public K key() {
+                    return cursor.key();
+                }
+
+                @Override
+                public V value() {
+                    return cursor.value();
+                }
+
+                @Override
+                public V setValue(V value) {
+                    synchronized (AdaptiveDictionary.this) {
+                        return isScannable(source) ? cursor.setValue(value) : insert(cursor.key(), value);
+                    }
+                }
+            };
+        }
+
+        Dictionary<K, V> source = current;
+        Dictionary<K, Object> changes = delta;
+
+        return new Cursor<>() {
+            final Cursor<K, V> sourceCursor = source.cursor();
+            // Created when the delta is reached, because setValue may add keys to the delta before.
+            Cursor<K, Object> deltaCursor;
+            K key;
+            V value;
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean advance() {
+                while (deltaCursor == null && sourceCursor.advance()) {
+                    Object changed = changes.search(sourceCursor.key());
+
+                    if (changed != REMOVED) {
+                        key = sourceCursor.key();
+                        value = (changed != null) ? (V) changed : sourceCursor.value();
+
+                        return true;
+                    }
+                }
+
+                if (deltaCursor == null) {
+                    deltaCursor = changes.cursor();
+                }
+
+                while (deltaCursor.advance()) {
+                    if (deltaCursor.value() != REMOVED && source.search(deltaCursor.key()) == null) {
+                        key = deltaCursor.key();
+                        value = (V) deltaCursor.value();
+
+                        return true;
+                    }
+                }
+
+                key = null;
+
+                return false;
+            }
+
+            @Override
+            public K key() {
+                check();
+
+                return key;
+            }
+
+            @Override
+            public V value() {
+                check();
+
+                return value;
+            }
+
+            @Override
+            public V setValue(V value) {
+                check();
+
+                V oldValue = this.value;
+
+                synchronized (AdaptiveDictionary.this) {
+                    if (delta == changes) {
+                        // Keys of the old dictionary added to the delta here are skipped when the delta is scanned.
+                        changes.insert(key, value);
+                    } else {
+                        // The migration has finished in the meantime.
+                        insert(key, value);
+                    }
+                }
+
+                this.value = value;
+
+                return oldValue;
+            }
+
+            private void check() {
+                if (key == null) {
+                    throw new NoSuchElementException();
+                }
+            }
+        };
+    }
+
+    /**
+     * Must be called and used while synchronized on this dictionary.
+     */
+    @Override
+    public synchronized Spliterator<Entry<K, V>> spliterator() {
+        if (delta == null) {
+            recordScan();
+
+            return new ScannedSpliterator(current, current.spliterator());
+        }
+
+        return Dictionary.super.spliterator();
+    }
+
+    /**
+     * Returns true if entries of source may still be changed in place,
+     * i.e. source is the current dictionary and is not being copied by a migration.
+     */
+    private boolean isScannable(Dictionary<K, V> source) {
+        return delta == null && current == source;
+    }
+
+    /**
+     * Entry handed out by a scan of source. setValue changes the entry of source in place as long as possible,
+     * and inserts the value otherwise.
+     */
+    private class ScannedEntry extends Entry<K, V> {
+        private final Dictionary<K, V> source;
+        private final Entry<K, V> entry;
+
+        /**
+         * @param source dictionary scanned, or null if the entry is a copy.
+         * @param entry  entry of source.
+         */
+        ScannedEntry(Dictionary<K, V> source, Entry<K, V> entry) {
+            super(entry.getKey(), null);
+            this.source = source;
+            this.entry = entry;
+        }
+
+        @Override
+        public V getValue() {
+            return entry.getValue();
+        }
+
+        @Override
+        public V setValue(V v) {
+            synchronized (AdaptiveDictionary.this) {
+                if (source != null && isScannable(source)) {
+                    return entry.setValue(v);
+                }
+
+                V oldValue = entry.setValue(v);
+
+                insert(getKey(), v);
+
+                return oldValue;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+
+    /**
+     * Spliterator of source, which hands out ScannedEntries.
+     */
+    private class ScannedSpliterator implements Spliterator<Entry<K, V>> {
+        private final Dictionary<K, V> source;
+        private final Spliterator<Entry<K, V>> spliterator;
+
+        ScannedSpliterator(Dictionary<K, V> source, Spliterator<Entry<K, V>> spliterator) {
+            this.source = source;
+            this.spliterator = spliterator;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Entry<K, V>> action) {
+            return spliterator.tryAdvance(entry -> action.accept(new ScannedEntry(source, entry)));
+        }
+
+        @Override
+        public Spliterator<Entry<K, V>> trySplit() {
+            Spliterator<Entry<K, V>> prefix = spliterator.trySplit();
+
+            return (prefix == null) ? null : new ScannedSpliterator(source, prefix);
+        }
+
+        @Override
+        public long estimateSize() {
+            return spliterator.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return spliterator.characteristics();
+        }
+
+        @Override
+        public Comparator<? super Entry<K, V>> getComparator() {
+            return spliterator.getComparator();
+        }
+    }
+
+    private void record(K key) {
+        if (previousKey != null && cmp.compare(previousKey, key) < 0) {
+            ++ascending;
+        }
+
+        previousKey = key;
+
+        if (++operations == WINDOW) {
+            evaluate();
+        }
+    }
+
+    private void recordScan() {
+        scanned += size();
+
+        if (++operations == WINDOW) {
+            evaluate();
+        }
+    }
+
+    /**
+     * Estimates the cost of the last window for every representation
+     * and starts a migration if another representation pays off.
+     */
+    private void evaluate() {
+        if (delta == null) {
+            int n = size();
+
+            Representation best = representation;
+
+            for (Representation candidate : Representation.values()) {
+                if (cost(candidate, n) < cost(best, n)) {
+                    best = candidate;
+                }
+            }
+
+            double currentCost = cost(representation, n);
+            double bestCost = cost(best, n);
+            double migrationCost = 3.0 * n;
+
+            if (best != representation && bestCost < HYSTERESIS * currentCost
+                    && (currentCost - bestCost) * HORIZON > migrationCost) {
+                LOGGER.info(String.format("Migrating from %s to %s: size %d, searches %d, inserts %d, removes %d, "
+                                + "scanned %d, ascending %d; estimated cost per window %.0f instead of %.0f",
+                        representation, best, n, searches, inserts, removes, scanned, ascending, bestCost, currentCost));
+
+                migrate(best);
+            }
+        }
+
+        operations = 0;
+        searches = 0;
+        inserts = 0;
+        removes = 0;
+        scanned = 0;
+        ascending = 0;
+    }
+
+    /**
+     * Estimated cost of the last window in key comparisons for representation and size n.
+     * Shifting an array element is counted as an eighth of a comparison,
+     * and ascending searches in the tree are resolved near the finger.
+     */
+    private double cost(Representation representation, int n) {
+        double log = Math.log(n + 2) / Math.log(2);
+
+        switch (representation) {
+            case SORTED_ARRAY:
+                return searches * log + (inserts + removes) * (log + n / 16.0) + scanned * 0.5;
+            case BINARY_TREE:
+                double locality = (searches == 0) ? 0 : Math.min(1.0, (double) ascending / searches);
+
+                return searches * (locality * 3 + (1 - locality) * 1.5 * log) + (inserts + removes) * 3 * log + scanned * 1.5;
+            default:
+                return searches * 2 + inserts * 3 + removes * 2 + scanned * 2;
+        }
+    }
+
+    private void migrate(Representation target) {
+        Dictionary<K, V> source = current;
+
+        size = source.size();
+        delta = new HashDictionary<>();
+
+        Thread thread = new Thread(() -> copy(source, target), "AdaptiveDictionary migration");
+
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Copies source into a new dictionary of representation target, applies the delta and replaces current.
+     * Runs in the migration thread; source is not modified until the copy is complete.
+     */
+    @SuppressWarnings("unchecked")
+    private void copy(Dictionary<K, V> source, Representation target) {
+        long start = System.nanoTime();
+
+        List<Entry<K, V>> entries = new ArrayList<>(source.size());
+        Cursor<K, V> cursor = source.cursor();
+
+        while (cursor.advance()) {
+            entries.add(new Entry<>(cursor.key(), cursor.value()));
+        }
+
+        // Ascending inserts append to the sorted array instead of shifting it.
+        if (target != Representation.HASH) {
+            entries.sort((x, y) -> cmp.compare(x.getKey(), y.getKey()));
+        }
+
+        Dictionary<K, V> dictionary = create(target);
+
+        for (Entry<K, V> entry : entries) {
+            dictionary.insert(entry.getKey(), entry.getValue());
+        }
+
+        synchronized (this) {
+            Cursor<K, Object> changes = delta.cursor();
+
+            while (changes.advance()) {
+                if (changes.value() == REMOVED) {
+                    dictionary.remove(changes.key());
+                } else {
+                    dictionary.insert(changes.key(), (V) changes.value());
+                }
+            }
+
+            LOGGER.info(String.format("Migrated from %s to %s in %.1f ms, %d changes applied afterwards",
+                    representation, target, (System.nanoTime() - start) / 1e6, delta.size()));
+
+            current = dictionary;
+            representation = target;
+            delta = null;
+
+            notifyAll();
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package dictionary;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Dictionary that can also be searched by value.
+ * <p>
+ * The forward dictionary maps every key to its value, the reverse index maps every value to its key,
+ * so both directions share the keys and values instead of copying them, and no entry objects are added.
+ * Only if several keys are mapped to the same value, the reverse index holds a list of these keys.
+ * The reverse index is updated by every insert and remove.
+ *
+ * @param <K> Key.
+ * @param <V> Value.
+ */
+public class BidirectionalDictionary<K, V> implements Dictionary<K, V> {
+
+    private final Dictionary<K, V> forward;
+
+    // Maps every value to its key, or to a Keys list if it belongs to more than one key.
+    private final Dictionary<V, Object> reverse;
+
+    /**
+     * Creates a bidirectional dictionary with a HashDictionary as reverse index.
+     *
+     * @param forward empty dictionary storing the values by key; must not be modified except through this dictionary.
+     */
+    public BidirectionalDictionary(Dictionary<K, V> forward) {
+        this(forward, new HashDictionary<>());
+    }
+
+    /**
+     * @param forward empty dictionary storing the values by key; must not be modified except through this dictionary.
+     * @param reverse empty dictionary used as reverse index.
+     */
+    public BidirectionalDictionary(Dictionary<K, V> forward, Dictionary<V, Object> reverse) {
+        if (forward.size() != 0 || reverse.size() != 0) {
+            throw new IllegalArgumentException("forward and reverse must be empty");
+        }
+
+        this.forward = forward;
+        this.reverse = reverse;
+    }
+
+    /**
+     * Returns the forward dictionary.
+     *
+     * @return dictionary storing the values by key.
+     */
+    public Dictionary<K, V> getDictionary() {
+        return forward;
+    }
+
+    @Override
+    public V insert(K key, V value) {
+        V oldValue = forward.insert(key, value);
+
+        updateIndex(key, oldValue, value);
+
+        return oldValue;
+    }
+
+    @Override
+    public V search(K key) {
+        return forward.search(key);
+    }
+
+    /**
+     * Returns all keys mapped to value in the order in which they were associated with it.
+     *
+     * @param value value whose keys are to be returned.
+     * @return keys mapped to value; empty if there are none.
+     */
+    @SuppressWarnings("unchecked")
+    public List<K> searchKeys(V value) {
+        Object keys = reverse.search(value);
+
+        if (keys == null) {
+            return new ArrayList<>(0);
+        }
+
+        if (keys instanceof Keys) {
+            return new ArrayList<>((Keys<K>) keys);
+        }
+
+        List<K> list = new ArrayList<>(1);
+
+        list.add((K) keys);
+
+        return list;
+    }
+
+    @Override
+    public void searchAll(K[] keys, V[] out) {
+        forward.searchAll(keys, out);
+    }
+
+    @Override
+    public V remove(K key) {
+        V value = forward.remove(key);
+
+        if (value != null) {
+            removeFromIndex(key, value);
+        }
+
+        return value;
+    }
+
+    @Override
+    public int size() {
+        return forward.size();
+    }
+
+    /**
+     * Includes the lists of the reverse index for values with several keys,
+     * whose unused capacity is counted as spare.
+     */
+    @Override
+    public MemoryFootprint footprint(boolean withPayload) {
+        // size, modCount and elementData of an ArrayList
+        long list = MemoryFootprint.object(2 * Integer.BYTES + MemoryFootprint.REFERENCE);
+        long structure = MemoryFootprint.object(2L * MemoryFootprint.REFERENCE);
+        long spare = 0;
+
+        Cursor<V, Object> cursor = reverse.cursor();
+
+        while (cursor.advance()) {
+            if (!(cursor.value() instanceof Keys<?> keys)) {
+                continue;
+            }
+
+            int n = keys.size();
+            int capacity = Keys.CAPACITY;
+
+            // The lists grow by half of their capacity.
+            while (capacity < n) {
+                capacity += capacity >> 1;
+            }
+
+            structure += list + MemoryFootprint.array(n, MemoryFootprint.REFERENCE);
+            spare += MemoryFootprint.array(capacity, MemoryFootprint.REFERENCE) - MemoryFootprint.array(n, MemoryFootprint.REFERENCE);
+        }
+
+        return new MemoryFootprint(structure, spare, withPayload ? MemoryFootprint.payload(this) : 0)
+                .plus(forward.footprint(false))
+                .plus(reverse.footprint(false));
+    }
+
+    /**
+     * Moves key from oldValue to newValue in the reverse index; oldValue is null for a new key.
+     */
+    private void updateIndex(K key, V oldValue, V newValue) {
+        if (oldValue != null) {
+            if (oldValue.equals(newValue)) {
+                return;
+            }
+
+            removeFromIndex(key, oldValue);
+        }
+
+        addToIndex(key, newValue);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void addToIndex(K key, V value) {
+        Object keys = reverse.search(value);
+
+        if (keys == null) {
+            // Most values belong to a single key, which is stored directly.
+            reverse.insert(value, key);
+        } else if (keys instanceof Keys) {
+            ((Keys<K>) keys).add(key);
+        } else {
+            Keys<K> list = new Keys<>();
+
+            list.add((K) keys);
+            list.add(key);
+            reverse.insert(value, list);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void removeFromIndex(K key, V value) {
+        Object keys = reverse.search(value);
+
+        if (!(keys instanceof Keys)) {
+            reverse.remove(value);
+            return;
+        }
+
+        Keys<K> list = (Keys<K>) keys;
+
+        list.remove(key);
+
+        if (list.size() == 1) {
+            reverse.insert(value, list.get(0));
+        }
+    }
+
+    /**
+     * Keys of a value with several keys, in the order in which they were associated with it.
+     * A private class, so that it cannot be mistaken for a key.
+     */
+    private static final class Keys<K> extends ArrayList<K> {
+        static final int CAPACITY = 2;
+
+        Keys() {
+            super(CAPACITY);
+        }
+    }
+
+    /**
+     * Returns an iterator over copies of the entries, so that the reverse index cannot be bypassed.
+     */
+    @Override
+    public Iterator<Entry<K, V>> iterator() {
+        Cursor<K, V> cursor = cursor();
+
+        return new Iterator<>() {
+            boolean advanced = cursor.advance();
+
+            @Override
+            public boolean hasNext() {
+                return advanced;
+            }
+
+            @Override
+            public Entry<K, V> next() {
+                if (!advanced) {
+                    throw new NoSuchElementException();
+                }
+
+                Entry<K, V> entry = new Entry<>(cursor.key(), cursor.value());
+
+                advanced = cursor.advance();
+
+                return entry;
+            }
+        };
+    }
+
+    @Override
+    public Cursor<K, V> cursor() {
+        Cursor<K, V> cursor = forward.cursor();
+
+        return new Cursor<>() {
+            @Override
+            public boolean advance() {
+                return cursor.advance();
+            }
+
+            @Override
+            public K key() {
+                return cursor.key();
+            }
+
+            @Override
+            public V value() {
+                return cursor.value();
+            }
+
+            @Override
+            public V setValue(V value) {
+                V oldValue = cursor.setValue(value);
+
+                updateIndex(cursor.key(), oldValue, value);
+
+                return oldValue;
+            }
+        };
+    }
+}
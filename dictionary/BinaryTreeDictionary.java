@@ -2,8 +2,18 @@
 // 22.09.2022
 package dictionary;
 
+import java.io.PrintStream;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
 
 /**
  * Implementation of the Dictionary interface as AVL tree.
@@ -12,72 +22,193 @@ import java.util.Iterator;
  * or by a Comparator provided at set creation time, depending on which constructor is used.
  * <p>
  * An iterator for this dictionary is implemented by using the parent node reference.
+ * <p>
+ * Searches start at the node accessed by the previous search (the finger) and climb only as far as needed,
+ * so sequential and clustered lookups take O(log d) steps, where d is the distance from the previous key.
+ * <p>
+ * Whole dictionaries can be split and joined, and combined by union, intersection and difference
+ * in O(m log(n/m + 1)) for sizes m &le; n using the join-based AVL algorithms.
+ * These operations move nodes between trees instead of copying them, so their arguments are emptied.
+ * <p>
+ * Every node stores the size of its subtree, so entries can be selected and ranked by position in O(log n).
+ * <p>
+ * A dictionary created by withPrefixCache stores an order-preserving long prefix of its String key in every node,
+ * so that most comparisons compare two longs and only ties are decided by the comparator.
  *
  * @param <K> Key.
  * @param <V> Value.
  */
-public class BinaryTreeDictionary<K, V> implements Dictionary<K, V> {
+public class BinaryTreeDictionary<K, V> implements RankedDictionary<K, V> {
+
+    // Subtrees of at least this height are processed in parallel by the parallel set operations.
+    private static final int PARALLEL_HEIGHT = 12;
 
     private final Comparator<? super K> cmp;
 
+    // Computes the prefixes stored in the nodes; null if there is no prefix cache and all prefixes are 0.
+    private final ToLongFunction<? super K> prefix;
+
     private Node<K, V> root;
-    private int size = 0;
     private V oldValue;
 
+    // Whether the last call of searchFrom has found its key.
+    private boolean found;
+
+    private Node<K, V> finger;
+    private long fingerSearches = 0;
+    private long fingerHits = 0;
+
     public BinaryTreeDictionary() {
         this(null);
     }
 
     public BinaryTreeDictionary(Comparator<? super K> cmp) {
+        this(cmp, null);
+    }
+
+    private BinaryTreeDictionary(Comparator<? super K> cmp, ToLongFunction<? super K> prefix) {
         if (cmp == null) {
             this.cmp = (x, y) -> ((Comparable<? super K>) x).compareTo(y);
         } else {
             this.cmp = cmp;
         }
 
+        this.prefix = prefix;
+    }
+
+    /**
+     * Creates a dictionary with String keys in their natural ordering that caches the first four chars of every key.
+     *
+     * @param <V> Value.
+     * @return empty dictionary with prefix cache.
+     */
+    public static <V> BinaryTreeDictionary<String, V> withPrefixCache() {
+        return new BinaryTreeDictionary<>(null, KeyPrefix.STRING);
+    }
+
+    private long prefixOf(K key) {
+        return (prefix == null) ? 0 : prefix.applyAsLong(key);
     }
 
-    private static void printLevel(int level) {
+    /**
+     * Compares key, whose prefix is keyPrefix, with the key of node p.
+     */
+    private int compare(K key, long keyPrefix, Node<K, V> p) {
+        int c = Long.compareUnsigned(keyPrefix, p.prefix);
+
+        return (c != 0) ? c : cmp.compare(key, p.key);
+    }
+
+    private static void printLevel(PrintStream out, int level) {
         if (level == 0) {
             return;
         }
 
         for (int i = 0; i < level - 1; i++) {
-            System.out.print("   ");
+            out.print("   ");
         }
 
-        System.out.print("|__");
+        out.print("|__");
     }
 
-    private V searchR(K key, Node<K,V> p) {
-        if (p == null) {
-            return null;
+    /**
+     * Searches key starting at node p instead of the root.
+     * Climbs towards the root only as far as needed to reach a subtree whose key range contains key
+     * and descends from there.
+     * Returns the node containing key, or the last node visited if key is not contained.
+     */
+    private Node<K, V> searchFrom(K key, Node<K, V> p) {
+        ++fingerSearches;
+
+        long keyPrefix = prefixOf(key);
+        int c = compare(key, keyPrefix, p);
+
+        found = true;
+
+        if (c == 0) {
+            ++fingerHits;
+
+            return p;
         }
 
-        if (cmp.compare(key, p.key) < 0) {
-            return searchR(key, p.left);
+        if (c > 0) {
+            while (p.parent != null) {
+                if (p.parent.left == p) {
+                    int d = compare(key, keyPrefix, p.parent);
+
+                    if (d == 0) {
+                        ++fingerHits;
+
+                        return p.parent;
+                    }
+
+                    if (d < 0) {
+                        break;
+                    }
+                }
+
+                p = p.parent;
+            }
+        } else {
+            while (p.parent != null) {
+                if (p.parent.right == p) {
+                    int d = compare(key, keyPrefix, p.parent);
+
+                    if (d == 0) {
+                        ++fingerHits;
+
+                        return p.parent;
+                    }
+
+                    if (d > 0) {
+                        break;
+                    }
+                }
+
+                p = p.parent;
+            }
         }
 
-        if (cmp.compare(key, p.key) > 0) {
-            return searchR(key, p.right);
+        if (p.parent != null) {
+            ++fingerHits;
         }
 
-        return p.value;
+        while (true) {
+            c = compare(key, keyPrefix, p);
+
+            Node<K, V> next;
+
+            if (c < 0) {
+                next = p.left;
+            } else if (c > 0) {
+                next = p.right;
+            } else {
+                return p;
+            }
+
+            if (next == null) {
+                found = false;
+
+                return p;
+            }
+
+            p = next;
+        }
     }
 
-    private Node<K,V> insertR(K key, V value, Node<K,V> p) {
+    private Node<K,V> insertR(K key, long keyPrefix, V value, Node<K,V> p) {
+        int c;
+
         if (p == null) {
-            p = new Node<>(key, value);
+            p = new Node<>(key, keyPrefix, value);
 
             oldValue = null;
-
-            ++size;
-        } else if (cmp.compare(key, p.key) < 0) {
-            p.left = insertR(key, value, p.left);
+        } else if ((c = compare(key, keyPrefix, p)) < 0) {
+            p.left = insertR(key, keyPrefix, value, p.left);
 
             p.left.parent = p;
-        } else if (cmp.compare(key, p.key) > 0) {
-            p.right = insertR(key, value, p.right);
+        } else if (c > 0) {
+            p.right = insertR(key, keyPrefix, value, p.right);
 
             p.right.parent = p;
         } else {
@@ -91,17 +222,19 @@ public class BinaryTreeDictionary<K, V> implements Dictionary<K, V> {
         return p;
     }
 
-    private Node<K,V> removeR(K key, Node<K,V> p) {
+    private Node<K,V> removeR(K key, long keyPrefix, Node<K,V> p) {
+        int c;
+
         if (p == null) {
             oldValue = null;
-        } else if(cmp.compare(key, p.key) < 0) {
-            p.left = removeR(key, p.left);
+        } else if((c = compare(key, keyPrefix, p)) < 0) {
+            p.left = removeR(key, keyPrefix, p.left);
 
             if (p.left != null) {
                 p.left.parent = p;
             }
-        } else if (cmp.compare(key, p.key) > 0) {
-            p.right = removeR(key, p.right);
+        } else if (c > 0) {
+            p.right = removeR(key, keyPrefix, p.right);
 
             if (p.right != null) {
                 p.right.parent = p;
@@ -110,8 +243,6 @@ public class BinaryTreeDictionary<K, V> implements Dictionary<K, V> {
             oldValue = p.value;
 
             p = (p.left != null) ? p.left : p.right;
-
-            --size;
         } else {
             MinEntry<K,V> min = new MinEntry<>();
 
@@ -124,9 +255,8 @@ public class BinaryTreeDictionary<K, V> implements Dictionary<K, V> {
             oldValue = p.value;
 
             p.key = min.key;
+            p.prefix = min.prefix;
             p.value = min.value;
-
-            --size;
         }
 
         p = balance(p);
@@ -137,11 +267,16 @@ public class BinaryTreeDictionary<K, V> implements Dictionary<K, V> {
     private Node<K,V> getRemMinR(Node<K,V> p, MinEntry<K,V> min) {
         if (p.left == null) {
             min.key = p.key;
+            min.prefix = p.prefix;
             min.value = p.value;
 
             p = p.right;
         } else {
             p.left = getRemMinR(p.left, min);
+
+            if (p.left != null) {
+                p.left.parent = p;
+            }
         }
 
         p = balance(p);
@@ -152,39 +287,517 @@ public class BinaryTreeDictionary<K, V> implements Dictionary<K, V> {
 
     @Override
     public V insert(K key, V value) {
-        root = insertR(key, value, root);
+        root = insertR(key, prefixOf(key), value, root);
 
         return oldValue;
     }
 
     @Override
     public V search(K key) {
-        return searchR(key, root);
+        if (root == null) {
+            return null;
+        }
+
+        finger = searchFrom(key, (finger != null) ? finger : root);
+
+        return found ? finger.value : null;
+    }
+
+    @Override
+    public void searchAll(K[] keys, V[] out) {
+        if (out.length < keys.length) {
+            throw new IllegalArgumentException("out is shorter than keys");
+        }
+
+        if (root == null) {
+            Arrays.fill(out, 0, keys.length, null);
+            return;
+        }
+
+        Integer[] order = new Integer[keys.length];
+
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+
+        Arrays.sort(order, (i, j) -> cmp.compare(keys[i], keys[j]));
+
+        // Consecutive keys are close to each other in the tree,
+        // so each search starts at the node where the previous one ended.
+        Node<K, V> p = (finger != null) ? finger : root;
+
+        for (int i : order) {
+            p = searchFrom(keys[i], p);
+
+            out[i] = found ? p.value : null;
+        }
+
+        finger = p;
     }
 
     @Override
     public V remove(K key) {
-        root = removeR(key, root);
+        // The node referenced by the finger might be unlinked.
+        finger = null;
+
+        root = removeR(key, prefixOf(key), root);
+
+        if (root != null) {
+            root.parent = null;
+        }
 
         return oldValue;
     }
 
     @Override
     public int size() {
-        return size;
+        return getSize(root);
     }
 
     @Override
-    public Iterator<Entry<K, V>> iterator() {
-        return new Iterator<>() {
-            Node<K,V> p;
+    public MemoryFootprint footprint(boolean withPayload) {
+        // height, size, prefix and key, value, left, right, parent
+        long node = MemoryFootprint.object(2 * Integer.BYTES + Long.BYTES + 5L * MemoryFootprint.REFERENCE);
 
-            {
-                if (root != null) {
-                    p = leftMostDescendant(root);
-                }
+        long structure = MemoryFootprint.object(5L * MemoryFootprint.REFERENCE + 2 * Long.BYTES + 1)
+                + (long) size() * node;
 
+        return new MemoryFootprint(structure, 0, withPayload ? MemoryFootprint.payload(this) : 0);
+    }
+
+    @Override
+    public Entry<K, V> select(int i) {
+        Node<K, V> p = selectNode(Objects.checkIndex(i, size()));
+
+        return new Entry<>(p.key, p.value);
+    }
+
+    private Node<K, V> selectNode(int i) {
+        Node<K, V> p = root;
+
+        while (true) {
+            int l = getSize(p.left);
+
+            if (i < l) {
+                p = p.left;
+            } else if (i > l) {
+                i -= l + 1;
+                p = p.right;
+            } else {
+                return p;
             }
+        }
+    }
+
+    @Override
+    public int rank(K key) {
+        long keyPrefix = prefixOf(key);
+        int r = 0;
+        Node<K, V> p = root;
+
+        while (p != null) {
+            int c = compare(key, keyPrefix, p);
+
+            if (c < 0) {
+                p = p.left;
+            } else if (c > 0) {
+                r += getSize(p.left) + 1;
+                p = p.right;
+            } else {
+                return r + getSize(p.left);
+            }
+        }
+
+        return r;
+    }
+
+    /**
+     * Returns the position of node p by adding up the sizes of the subtrees left of the path to the root.
+     */
+    private int rank(Node<K, V> p) {
+        int r = getSize(p.left);
+
+        for (; p.parent != null; p = p.parent) {
+            if (p.parent.right == p) {
+                r += getSize(p.parent.left) + 1;
+            }
+        }
+
+        return r;
+    }
+
+    /**
+     * Splits this dictionary at key.
+     * Afterwards this dictionary contains all entries with keys less than key,
+     * and the returned dictionary contains all entries with keys greater than or equal to key.
+     *
+     * @param key key at which this dictionary is split.
+     * @return new dictionary with all entries whose keys are greater than or equal to key.
+     */
+    public BinaryTreeDictionary<K, V> split(K key) {
+        Split<K, V> s = split(root, key, prefixOf(key));
+
+        BinaryTreeDictionary<K, V> right = new BinaryTreeDictionary<>(cmp, prefix);
+
+        right.root = (s.middle == null) ? s.right : joinR(null, s.middle, s.right);
+
+        root = s.left;
+        finger = null;
+
+        return right;
+    }
+
+    /**
+     * Joins two dictionaries, where all keys of left must be less than all keys of right.
+     * The entries are moved into the returned dictionary, so left and right are empty afterwards.
+     *
+     * @param left  dictionary with the smaller keys.
+     * @param right dictionary with the greater keys.
+     * @param <K>   Key.
+     * @param <V>   Value.
+     * @return dictionary containing the entries of left and right.
+     * @throws IllegalArgumentException if a key of left is not less than all keys of right,
+     *                                  or only one of the dictionaries has a prefix cache.
+     */
+    public static <K, V> BinaryTreeDictionary<K, V> join(BinaryTreeDictionary<K, V> left, BinaryTreeDictionary<K, V> right) {
+        if (left == right) {
+            throw new IllegalArgumentException("left and right must be different dictionaries");
+        }
+
+        if (left.prefix != right.prefix) {
+            throw new IllegalArgumentException("left and right must use the same prefix cache");
+        }
+
+        if (left.root != null && right.root != null) {
+            Node<K, V> max = left.root;
+
+            while (max.right != null) {
+                max = max.right;
+            }
+
+            Node<K, V> min = right.root;
+
+            while (min.left != null) {
+                min = min.left;
+            }
+
+            if (left.cmp.compare(max.key, min.key) >= 0) {
+                throw new IllegalArgumentException("keys of left must be less than keys of right");
+            }
+        }
+
+        BinaryTreeDictionary<K, V> joined = new BinaryTreeDictionary<>(left.cmp, left.prefix);
+
+        joined.root = joined.join2(left.root, right.root);
+
+        left.clear();
+        right.clear();
+
+        return joined;
+    }
+
+    /**
+     * Adds all entries of other to this dictionary.
+     * For keys contained in both dictionaries the value of other is kept.
+     * other is empty afterwards and must use the same ordering and prefix cache as this dictionary.
+     *
+     * @param other dictionary whose entries are moved into this dictionary.
+     */
+    public void union(BinaryTreeDictionary<K, V> other) {
+        union(other, (v, w) -> w);
+    }
+
+    /**
+     * Adds all entries of other to this dictionary.
+     * For keys contained in both dictionaries the value is resolver.apply(value in this, value in other).
+     * other is empty afterwards and must use the same ordering and prefix cache as this dictionary.
+     *
+     * @param other    dictionary whose entries are moved into this dictionary.
+     * @param resolver resolves the value of keys contained in both dictionaries.
+     */
+    public void union(BinaryTreeDictionary<K, V> other, BinaryOperator<V> resolver) {
+        setOperation(SetOperation.UNION, other, resolver, false);
+    }
+
+    /**
+     * Removes all entries from this dictionary whose keys are not contained in other.
+     * The values of this dictionary are kept.
+     * other is empty afterwards and must use the same ordering and prefix cache as this dictionary.
+     *
+     * @param other dictionary with the keys to be retained.
+     */
+    public void intersection(BinaryTreeDictionary<K, V> other) {
+        setOperation(SetOperation.INTERSECTION, other, null, false);
+    }
+
+    /**
+     * Removes all entries from this dictionary whose keys are contained in other.
+     * other is empty afterwards and must use the same ordering and prefix cache as this dictionary.
+     *
+     * @param other dictionary with the keys to be removed.
+     */
+    public void difference(BinaryTreeDictionary<K, V> other) {
+        setOperation(SetOperation.DIFFERENCE, other, null, false);
+    }
+
+    /**
+     * Same as {@link #union(BinaryTreeDictionary)}, but independent subtrees are processed in parallel
+     * in the common fork-join pool.
+     *
+     * @param other dictionary whose entries are moved into this dictionary.
+     */
+    public void parallelUnion(BinaryTreeDictionary<K, V> other) {
+        parallelUnion(other, (v, w) -> w);
+    }
+
+    /**
+     * Same as {@link #union(BinaryTreeDictionary, BinaryOperator)}, but independent subtrees are processed
+     * in parallel in the common fork-join pool.
+     *
+     * @param other    dictionary whose entries are moved into this dictionary.
+     * @param resolver resolves the value of keys contained in both dictionaries.
+     */
+    public void parallelUnion(BinaryTreeDictionary<K, V> other, BinaryOperator<V> resolver) {
+        setOperation(SetOperation.UNION, other, resolver, true);
+    }
+
+    /**
+     * Same as {@link #intersection(BinaryTreeDictionary)}, but independent subtrees are processed in parallel
+     * in the common fork-join pool.
+     *
+     * @param other dictionary with the keys to be retained.
+     */
+    public void parallelIntersection(BinaryTreeDictionary<K, V> other) {
+        setOperation(SetOperation.INTERSECTION, other, null, true);
+    }
+
+    /**
+     * Same as {@link #difference(BinaryTreeDictionary)}, but independent subtrees are processed in parallel
+     * in the common fork-join pool.
+     *
+     * @param other dictionary with the keys to be removed.
+     */
+    public void parallelDifference(BinaryTreeDictionary<K, V> other) {
+        setOperation(SetOperation.DIFFERENCE, other, null, true);
+    }
+
+    private void setOperation(SetOperation op, BinaryTreeDictionary<K, V> other, BinaryOperator<V> resolver, boolean parallel) {
+        if (other == this) {
+            throw new IllegalArgumentException("other must be a different dictionary");
+        }
+
+        if (other.prefix != prefix) {
+            throw new IllegalArgumentException("other must use the same prefix cache");
+        }
+
+        if (parallel) {
+            root = ForkJoinPool.commonPool().invoke(new SetOperationTask(op, root, other.root, resolver));
+        } else {
+            root = setOperationR(op, root, other.root, resolver, false);
+        }
+
+        finger = null;
+
+        other.clear();
+    }
+
+    private void clear() {
+        root = null;
+        finger = null;
+    }
+
+    /**
+     * Combines the trees t1 and t2 by splitting t1 at the root of t2 and combining the halves recursively.
+     */
+    private Node<K, V> setOperationR(SetOperation op, Node<K, V> t1, Node<K, V> t2, BinaryOperator<V> resolver,
+                                     boolean parallel) {
+        if (t1 == null) {
+            return (op == SetOperation.UNION) ? t2 : null;
+        }
+
+        if (t2 == null) {
+            return (op == SetOperation.INTERSECTION) ? null : t1;
+        }
+
+        boolean fork = parallel && Math.min(t1.height, t2.height) >= PARALLEL_HEIGHT;
+
+        Node<K, V> l2 = detach(t2.left);
+        Node<K, V> r2 = detach(t2.right);
+
+        t2.left = null;
+        t2.right = null;
+
+        Split<K, V> s = split(t1, t2.key, t2.prefix);
+
+        Node<K, V> l;
+        Node<K, V> r;
+
+        if (fork) {
+            SetOperationTask task = new SetOperationTask(op, s.left, l2, resolver);
+
+            task.fork();
+
+            r = setOperationR(op, s.right, r2, resolver, true);
+            l = task.join();
+        } else {
+            l = setOperationR(op, s.left, l2, resolver, parallel);
+            r = setOperationR(op, s.right, r2, resolver, parallel);
+        }
+
+        switch (op) {
+            case UNION:
+                if (s.middle != null) {
+                    t2.value = resolver.apply(s.middle.value, t2.value);
+                }
+
+                return joinR(l, t2, r);
+            case INTERSECTION:
+                return (s.middle != null) ? joinR(l, s.middle, r) : join2(l, r);
+            default:
+                return join2(l, r);
+        }
+    }
+
+    /**
+     * Splits the tree t into the trees with keys less and greater than key
+     * and the detached node containing key, if any.
+     */
+    private Split<K, V> split(Node<K, V> t, K key, long keyPrefix) {
+        if (t == null) {
+            return new Split<>();
+        }
+
+        Node<K, V> l = detach(t.left);
+        Node<K, V> r = detach(t.right);
+
+        t.left = null;
+        t.right = null;
+        t.parent = null;
+
+        int c = compare(key, keyPrefix, t);
+
+        if (c == 0) {
+            Split<K, V> s = new Split<>();
+
+            s.left = l;
+            s.middle = t;
+            s.right = r;
+
+            return s;
+        }
+
+        if (c < 0) {
+            Split<K, V> s = split(l, key, keyPrefix);
+
+            s.right = joinR(s.right, t, r);
+
+            return s;
+        }
+
+        Split<K, V> s = split(r, key, keyPrefix);
+
+        s.left = joinR(l, t, s.left);
+
+        return s;
+    }
+
+    /**
+     * Joins the trees l and r, where all keys of l are less than all keys of r.
+     */
+    private Node<K, V> join2(Node<K, V> l, Node<K, V> r) {
+        if (l == null) {
+            return r;
+        }
+
+        if (r == null) {
+            return l;
+        }
+
+        MinEntry<K, V> min = new MinEntry<>();
+
+        r = detach(getRemMinR(r, min));
+
+        return joinR(l, new Node<>(min.key, min.prefix, min.value), r);
+    }
+
+    /**
+     * Joins the trees l and r and the single node k,
+     * where all keys of l are less than k.key and all keys of r are greater than k.key.
+     */
+    private Node<K, V> joinR(Node<K, V> l, Node<K, V> k, Node<K, V> r) {
+        if (getHeight(l) > getHeight(r) + 1) {
+            return detach(joinRightR(l, k, r));
+        }
+
+        if (getHeight(r) > getHeight(l) + 1) {
+            return detach(joinLeftR(l, k, r));
+        }
+
+        return link(k, l, r);
+    }
+
+    private Node<K, V> joinRightR(Node<K, V> l, Node<K, V> k, Node<K, V> r) {
+        if (getHeight(l.right) <= getHeight(r) + 1) {
+            l.right = link(k, l.right, r);
+        } else {
+            l.right = joinRightR(l.right, k, r);
+        }
+
+        l.right.parent = l;
+
+        return balance(l);
+    }
+
+    private Node<K, V> joinLeftR(Node<K, V> l, Node<K, V> k, Node<K, V> r) {
+        if (getHeight(r.left) <= getHeight(l) + 1) {
+            r.left = link(k, l, r.left);
+        } else {
+            r.left = joinLeftR(l, k, r.left);
+        }
+
+        r.left.parent = r;
+
+        return balance(r);
+    }
+
+    private Node<K, V> link(Node<K, V> p, Node<K, V> l, Node<K, V> r) {
+        p.left = l;
+        p.right = r;
+        p.parent = null;
+
+        if (l != null) {
+            l.parent = p;
+        }
+
+        if (r != null) {
+            r.parent = p;
+        }
+
+        p.height = Math.max(getHeight(l), getHeight(r)) + 1;
+        p.size = getSize(l) + getSize(r) + 1;
+
+        return p;
+    }
+
+    private Node<K, V> detach(Node<K, V> p) {
+        if (p != null) {
+            p.parent = null;
+        }
+
+        return p;
+    }
+
+    @Override
+    public Iterator<Entry<K, V>> iterator() {
+        return iteratorFrom(0);
+    }
+
+    @Override
+    public Iterator<Entry<K, V>> iteratorFrom(int index) {
+        Objects.checkIndex(index, size() + 1);
+
+        return new Iterator<>() {
+            Node<K, V> p = (index == size()) ? null : selectNode(index);
 
             @Override
             public boolean hasNext() {
@@ -193,54 +806,279 @@ public class BinaryTreeDictionary<K, V> implements Dictionary<K, V> {
 
             @Override
             public Entry<K, V> next() {
+                if (p == null) {
+                    throw new NoSuchElementException();
+                }
+
                 Entry<K, V> entry = new Entry<>(p.key, p.value);
 
-                if (p.right != null) {
-                    p= leftMostDescendant(p.right);
-                } else {
-                    p = parentOfLeftMostAncestor(p);
-                }
+                p = successor(p);
 
                 return entry;
-
             }
+        };
+    }
 
-            private Node<K,V> leftMostDescendant(Node<K,V> p) {
-                while (p.left != null) {
-                    p = p.left;
+    @Override
+    public Cursor<K, V> cursor() {
+        return new Cursor<>() {
+            Node<K, V> p;
+            boolean started = false;
+
+            @Override
+            public boolean advance() {
+                if (!started) {
+                    started = true;
+                    p = (root == null) ? null : first(root);
+                } else if (p != null) {
+                    p = successor(p);
                 }
 
-                return p;
+                return p != null;
+            }
+
+            @Override
+            public K key() {
+                return current().key;
             }
 
-            private Node<K,V> parentOfLeftMostAncestor(Node<K,V> p) {
-                while (p.parent != null && p.parent.right == p) {
-                    p = p.parent;
+            @Override
+            public V value() {
+                return current().value;
+            }
+
+            @Override
+            public V setValue(V value) {
+                V old = current().value;
+
+                p.value = value;
+
+                return old;
+            }
+
+            private Node<K, V> current() {
+                if (p == null) {
+                    throw new NoSuchElementException();
                 }
 
-                return p.parent;
+                return p;
             }
         };
     }
 
+    @Override
+    public Spliterator<Entry<K, V>> spliterator() {
+        return new EntrySpliterator((root == null) ? null : first(root), null, size());
+    }
+
+    private Node<K, V> first(Node<K, V> p) {
+        while (p.left != null) {
+            p = p.left;
+        }
+
+        return p;
+    }
+
+    private Node<K, V> last(Node<K, V> p) {
+        while (p.right != null) {
+            p = p.right;
+        }
+
+        return p;
+    }
+
+    private Node<K, V> successor(Node<K, V> p) {
+        if (p.right != null) {
+            return first(p.right);
+        }
+
+        while (p.parent != null && p.parent.right == p) {
+            p = p.parent;
+        }
+
+        return p.parent;
+    }
+
+    private Node<K, V> predecessor(Node<K, V> p) {
+        if (p.left != null) {
+            return last(p.left);
+        }
+
+        while (p.parent != null && p.parent.left == p) {
+            p = p.parent;
+        }
+
+        return p.parent;
+    }
+
+    /**
+     * Returns the lowest common ancestor of p and q.
+     * Ancestors are strictly higher than their descendants, so the lower node is never the common ancestor.
+     */
+    private Node<K, V> lowestCommonAncestor(Node<K, V> p, Node<K, V> q) {
+        while (p != q) {
+            if (p.height < q.height) {
+                p = p.parent;
+            } else if (p.height > q.height) {
+                q = q.parent;
+            } else {
+                p = p.parent;
+                q = q.parent;
+            }
+        }
+
+        return p;
+    }
+
+    /**
+     * Spliterator over the nodes from current (inclusive) to fence (exclusive, null for the end) in order.
+     * Splits at the root of the smallest subtree spanning the range,
+     * so every split halves a subtree of the AVL tree.
+     * The sizes of the halves are computed exactly from the positions of their bounds.
+     */
+    private class EntrySpliterator implements Spliterator<Entry<K, V>> {
+        private Node<K, V> current;
+        private final Node<K, V> fence;
+        private int size;
+
+        EntrySpliterator(Node<K, V> current, Node<K, V> fence, int size) {
+            this.current = current;
+            this.fence = fence;
+            this.size = size;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Entry<K, V>> action) {
+            if (current == fence) {
+                return false;
+            }
+
+            Node<K, V> p = current;
+
+            current = successor(p);
+            --size;
+
+            action.accept(new Entry<>(p.key, p.value));
+
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Entry<K, V>> action) {
+            Node<K, V> p = current;
+
+            current = fence;
+            size = 0;
+
+            for (; p != fence; p = successor(p)) {
+                action.accept(new Entry<>(p.key, p.value));
+            }
+        }
+
+        @Override
+        public Spliterator<Entry<K, V>> trySplit() {
+            if (current == fence) {
+                return null;
+            }
+
+            Node<K, V> last = (fence == null) ? last(root) : predecessor(fence);
+
+            if (last == current) {
+                return null;
+            }
+
+            Node<K, V> m = lowestCommonAncestor(current, last);
+
+            if (m == current) {
+                m = lowestCommonAncestor(successor(current), last);
+            }
+
+            EntrySpliterator prefix = new EntrySpliterator(current, m, rank(m) - rank(current));
+
+            current = m;
+            size -= prefix.size;
+
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return size;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SORTED | DISTINCT | NONNULL | SIZED | SUBSIZED;
+        }
+
+        @Override
+        public Comparator<? super Entry<K, V>> getComparator() {
+            return (x, y) -> cmp.compare(x.getKey(), y.getKey());
+        }
+    }
+
+    /**
+     * Returns the number of searches that started at the finger since the last reset.
+     *
+     * @return number of finger searches.
+     */
+    public long getFingerSearches() {
+        return fingerSearches;
+    }
+
+    /**
+     * Returns the number of finger searches that were resolved without climbing up to the root.
+     *
+     * @return number of finger hits.
+     */
+    public long getFingerHits() {
+        return fingerHits;
+    }
+
+    /**
+     * Returns the ratio of finger hits to finger searches, or 0 if no search has been performed.
+     *
+     * @return finger hit rate.
+     */
+    public double getFingerHitRate() {
+        return (fingerSearches == 0) ? 0 : (double) fingerHits / fingerSearches;
+    }
+
+    /**
+     * Resets the finger statistics.
+     */
+    public void resetFingerStatistics() {
+        fingerSearches = 0;
+        fingerHits = 0;
+    }
+
     /**
      * Pretty prints the tree
      */
     public void prettyPrint() {
-        printR(0, root);
+        prettyPrint(System.out);
     }
 
-    private void printR(int level, Node<K, V> p) {
-        printLevel(level);
+    /**
+     * Pretty prints the tree to out.
+     *
+     * @param out stream receiving the tree.
+     */
+    public void prettyPrint(PrintStream out) {
+        printR(out, 0, root);
+    }
+
+    private void printR(PrintStream out, int level, Node<K, V> p) {
+        printLevel(out, level);
 
         if (p == null) {
-            System.out.println("#");
+            out.println("#");
         } else {
-            System.out.println(p.key + " " + p.value + "^" + ((p.parent == null) ? "null" : p.parent.key));
+            out.println(p.key + " " + p.value + "^" + ((p.parent == null) ? "null" : p.parent.key));
 
             if (p.left != null || p.right != null) {
-                printR(level + 1, p.left);
-                printR(level + 1, p.right);
+                printR(out, level + 1, p.left);
+                printR(out, level + 1, p.right);
             }
         }
     }
@@ -252,6 +1090,10 @@ public class BinaryTreeDictionary<K, V> implements Dictionary<K, V> {
             return p.height;
     }
 
+    private int getSize(Node<K, V> p) {
+        return (p == null) ? 0 : p.size;
+    }
+
     private int getBalance(Node<K,V> p) {
         if (p == null)
             return 0;
@@ -265,6 +1107,7 @@ public class BinaryTreeDictionary<K, V> implements Dictionary<K, V> {
         }
 
         p.height = Math.max(getHeight(p.left), getHeight(p.right)) + 1;
+        p.size = getSize(p.left) + getSize(p.right) + 1;
 
         if (getBalance(p) == -2) {
             if (getBalance(p.left) <= 0) {
@@ -306,6 +1149,9 @@ public class BinaryTreeDictionary<K, V> implements Dictionary<K, V> {
         p.height = Math.max(getHeight(p.left), getHeight(p.right)) + 1;
         q.height = Math.max(getHeight(q.left), getHeight(q.right)) + 1;
 
+        q.size = p.size;
+        p.size = getSize(p.left) + getSize(p.right) + 1;
+
         return q;
     }
 
@@ -333,6 +1179,9 @@ public class BinaryTreeDictionary<K, V> implements Dictionary<K, V> {
         p.height = Math.max(getHeight(p.left), getHeight(p.right)) + 1;
         q.height = Math.max(getHeight(q.left), getHeight(q.right)) + 1;
 
+        q.size = p.size;
+        p.size = getSize(p.left) + getSize(p.right) + 1;
+
         return q;
     }
 
@@ -351,20 +1200,54 @@ public class BinaryTreeDictionary<K, V> implements Dictionary<K, V> {
 
     private static class MinEntry<K, V> {
         K key;
+        long prefix;
         V value;
     }
 
+    private enum SetOperation {
+        UNION, INTERSECTION, DIFFERENCE
+    }
+
+    private static class Split<K, V> {
+        Node<K, V> left;
+        Node<K, V> middle;
+        Node<K, V> right;
+    }
+
+    private class SetOperationTask extends RecursiveTask<Node<K, V>> {
+        final SetOperation op;
+        final Node<K, V> t1;
+        final Node<K, V> t2;
+        final BinaryOperator<V> resolver;
+
+        SetOperationTask(SetOperation op, Node<K, V> t1, Node<K, V> t2, BinaryOperator<V> resolver) {
+            this.op = op;
+            this.t1 = t1;
+            this.t2 = t2;
+            this.resolver = resolver;
+        }
+
+        @Override
+        protected Node<K, V> compute() {
+            return setOperationR(op, t1, t2, resolver, true);
+        }
+    }
+
     private static class Node<K, V> {
         int height;
+        int size;
         K key;
+        long prefix;
         V value;
         Node<K, V> left;
         Node<K, V> right;
         Node<K, V> parent;
 
-        Node(K k, V v) {
+        Node(K k, long prefix, V v) {
             height = 0;
+            size = 1;
             key = k;
+            this.prefix = prefix;
             value = v;
             left = null;
             right = null;
@@ -0,0 +1,300 @@
+package dictionary;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * BK-tree over strings with the Levenshtein distance as metric.
+ * <p>
+ * Every child hangs below its parent at the edge labelled with their distance.
+ * By the triangle inequality, a search for all strings within distance k of a query
+ * only needs to descend into children whose edge label differs from the distance between query and parent by at most k,
+ * so most of the tree is never compared with the query.
+ * <p>
+ * Removed strings are only marked as removed; the tree is rebuilt once more strings are marked than contained.
+ * The tree is not thread-safe.
+ */
+public class BkTree {
+
+    private Node root;
+    private int size = 0;
+    private int removed = 0;
+
+    private int[] previousRow = new int[16];
+    private int[] currentRow = new int[16];
+
+    /**
+     * Adds key to the tree.
+     *
+     * @param key string to be added.
+     * @return true, if key was not contained yet.
+     */
+    public boolean add(String key) {
+        if (root == null) {
+            root = new Node(key);
+            ++size;
+
+            return true;
+        }
+
+        Node node = root;
+
+        while (true) {
+            int d = distance(key, node.key);
+
+            if (d == 0) {
+                if (!node.removed) {
+                    return false;
+                }
+
+                node.removed = false;
+                --removed;
+                ++size;
+
+                return true;
+            }
+
+            Node child = node.getChild(d);
+
+            if (child == null) {
+                node.setChild(d, new Node(key));
+                ++size;
+
+                return true;
+            }
+
+            node = child;
+        }
+    }
+
+    /**
+     * Removes key from the tree.
+     *
+     * @param key string to be removed.
+     * @return true, if key was contained.
+     */
+    public boolean remove(String key) {
+        Node node = root;
+
+        while (node != null) {
+            int d = distance(key, node.key);
+
+            if (d == 0) {
+                if (node.removed) {
+                    return false;
+                }
+
+                node.removed = true;
+                ++removed;
+                --size;
+
+                if (removed > size) {
+                    rebuild();
+                }
+
+                return true;
+            }
+
+            node = node.getChild(d);
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns all strings within edit distance maxDistance of key,
+     * ordered by distance and alphabetically within the same distance.
+     *
+     * @param key         query.
+     * @param maxDistance maximal Levenshtein distance.
+     * @return matching strings.
+     */
+    public List<String> search(String key, int maxDistance) {
+        List<List<String>> matches = new ArrayList<>();
+
+        for (int i = 0; i <= maxDistance; i++) {
+            matches.add(new ArrayList<>());
+        }
+
+        if (root != null) {
+            Deque<Node> stack = new ArrayDeque<>();
+
+            stack.push(root);
+
+            while (!stack.isEmpty()) {
+                Node node = stack.pop();
+
+                int d = distance(key, node.key);
+
+                if (d <= maxDistance && !node.removed) {
+                    matches.get(d).add(node.key);
+                }
+
+                if (node.children != null) {
+                    int to = Math.min(d + maxDistance, node.children.length - 1);
+
+                    for (int i = Math.max(1, d - maxDistance); i <= to; i++) {
+                        if (node.children[i] != null) {
+                            stack.push(node.children[i]);
+                        }
+                    }
+                }
+            }
+        }
+
+        List<String> result = new ArrayList<>();
+
+        for (List<String> match : matches) {
+            Collections.sort(match);
+            result.addAll(match);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the number of strings in the tree.
+     *
+     * @return number of strings.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Estimates the heap used by the tree without its strings; removed nodes are counted as spare.
+     *
+     * @return estimated memory footprint.
+     */
+    public MemoryFootprint footprint() {
+        long node = MemoryFootprint.object(2L * MemoryFootprint.REFERENCE + 1);
+        long structure = MemoryFootprint.object(3L * MemoryFootprint.REFERENCE + 2 * Integer.BYTES)
+                + MemoryFootprint.array(previousRow.length, Integer.BYTES)
+                + MemoryFootprint.array(currentRow.length, Integer.BYTES);
+
+        if (root != null) {
+            Deque<Node> stack = new ArrayDeque<>();
+
+            stack.push(root);
+
+            while (!stack.isEmpty()) {
+                Node p = stack.pop();
+
+                structure += node;
+
+                if (p.children != null) {
+                    structure += MemoryFootprint.array(p.children.length, MemoryFootprint.REFERENCE);
+
+                    for (Node child : p.children) {
+                        if (child != null) {
+                            stack.push(child);
+                        }
+                    }
+                }
+            }
+        }
+
+        long spare = removed * node;
+
+        return new MemoryFootprint(structure - spare, spare, 0);
+    }
+
+    private void rebuild() {
+        List<String> keys = new ArrayList<>(size);
+
+        if (root != null) {
+            Deque<Node> stack = new ArrayDeque<>();
+
+            stack.push(root);
+
+            while (!stack.isEmpty()) {
+                Node node = stack.pop();
+
+                if (!node.removed) {
+                    keys.add(node.key);
+                }
+
+                if (node.children != null) {
+                    for (Node child : node.children) {
+                        if (child != null) {
+                            stack.push(child);
+                        }
+                    }
+                }
+            }
+        }
+
+        root = null;
+        size = 0;
+        removed = 0;
+
+        for (String key : keys) {
+            add(key);
+        }
+    }
+
+    /**
+     * Levenshtein distance of a and b, computed row by row with two reused rows.
+     */
+    private int distance(String a, String b) {
+        int n = b.length();
+
+        if (currentRow.length <= n) {
+            previousRow = new int[2 * n + 1];
+            currentRow = new int[2 * n + 1];
+        }
+
+        int[] previous = previousRow;
+        int[] current = currentRow;
+
+        for (int j = 0; j <= n; j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= a.length(); i++) {
+            char c = a.charAt(i - 1);
+
+            current[0] = i;
+
+            for (int j = 1; j <= n; j++) {
+                int substitution = previous[j - 1] + ((c == b.charAt(j - 1)) ? 0 : 1);
+
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+
+            int[] row = previous;
+            previous = current;
+            current = row;
+        }
+
+        return previous[n];
+    }
+
+    private static class Node {
+        final String key;
+        boolean removed = false;
+        Node[] children;
+
+        Node(String key) {
+            this.key = key;
+        }
+
+        Node getChild(int d) {
+            return (children == null || d >= children.length) ? null : children[d];
+        }
+
+        void setChild(int d, Node child) {
+            if (children == null) {
+                children = new Node[d + 1];
+            } else if (d >= children.length) {
+                children = Arrays.copyOf(children, d + 1);
+            }
+
+            children[d] = child;
+        }
+    }
+}
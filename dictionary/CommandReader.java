@@ -0,0 +1,267 @@
+package dictionary;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads commands line by line from UTF-8 encoded input and splits them into words, working directly on the bytes.
+ * <p>
+ * The result is the same as with a Scanner over the input and nextLine().split("\\s+"):
+ * lines end at \r\n, \n, \r, U+0085, U+2028 or U+2029, words are separated by runs of
+ * space, \t, \u000B and \f, a line starting with a separator yields an empty first word,
+ * an empty line yields a single empty word and a line consisting only of separators yields no words.
+ * Like Scanner.hasNext(), hasNext() is false as soon as only whitespace is left in the input.
+ */
+final class CommandReader {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final InputStream in;
+    private final List<String> words = new ArrayList<>();
+    private byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private boolean eof;
+
+    /**
+     * @param in input; is read in large blocks, so it does not need to be buffered.
+     */
+    CommandReader(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Returns true if the remaining input contains a character that is not whitespace.
+     * Consumes no input, but may read ahead over whitespace.
+     */
+    boolean hasNext() throws IOException {
+        for (int i = position; ; ) {
+            if (i == limit) {
+                int offset = i - position;
+
+                if (!fill()) {
+                    return false;
+                }
+
+                i = position + offset;
+                continue;
+            }
+
+            int b = buffer[i] & 0xff;
+
+            if (b < 0x80) {
+                if (!isWhitespace(b)) {
+                    return true;
+                }
+
+                i++;
+            } else {
+                // All non-ASCII whitespace characters lie between U+1680 and U+3000 and are encoded in 3 bytes.
+                if (b < 0xe1 || b > 0xe3) {
+                    return true;
+                }
+
+                while (limit - i < 3 && !eof) {
+                    int offset = i - position;
+
+                    fill();
+                    i = position + offset;
+                }
+
+                if (limit - i < 3 || !isContinuation(buffer[i + 1]) || !isContinuation(buffer[i + 2])) {
+                    return true;
+                }
+
+                int c = (b & 0x0f) << 12 | (buffer[i + 1] & 0x3f) << 6 | (buffer[i + 2] & 0x3f);
+
+                if (!Character.isWhitespace(c)) {
+                    return true;
+                }
+
+                i += 3;
+            }
+        }
+    }
+
+    /**
+     * Reads the next line and splits it into words.
+     *
+     * @return words of the line; empty, if the line consists only of separators.
+     */
+    String[] next() throws IOException {
+        words.clear();
+
+        int i = position;
+        int start = i;
+        boolean empty = true;
+
+        while (true) {
+            if (i == limit) {
+                int offset = i - position;
+                int startOffset = start - position;
+                boolean filled = fill();
+
+                i = position + offset;
+                start = position + startOffset;
+
+                if (!filled) {
+                    break;
+                }
+
+                continue;
+            }
+
+            int b = buffer[i];
+
+            if (b == '\n' || b == '\r') {
+                break;
+            }
+
+            if (b == (byte) 0xc2 || b == (byte) 0xe2) {
+                int length = terminatorLength(i);
+
+                if (length < 0) {
+                    // The rest of the character has not been read yet.
+                    int offset = i - position;
+                    int startOffset = start - position;
+
+                    fill();
+                    i = position + offset;
+                    start = position + startOffset;
+                    continue;
+                }
+
+                if (length > 0) {
+                    break;
+                }
+            }
+
+            if (isSeparator(b)) {
+                if (start < i || words.isEmpty()) {
+                    words.add(word(start, i));
+                }
+
+                start = i + 1;
+            }
+
+            empty = false;
+            i++;
+        }
+
+        if (start < i || empty) {
+            words.add(word(start, i));
+        }
+
+        position = i;
+        skipTerminator();
+
+        // split drops trailing empty words, so that a line of separators only has no words at all.
+        if (!empty && words.size() == 1 && words.get(0).isEmpty()) {
+            words.clear();
+        }
+
+        return words.toArray(new String[0]);
+    }
+
+    /**
+     * Returns the length of the line terminator U+0085, U+2028 or U+2029 at i, 0 if there is none,
+     * or -1 if more input is needed to decide.
+     */
+    private int terminatorLength(int i) {
+        if (buffer[i] == (byte) 0xc2) {
+            if (i + 1 == limit) {
+                return eof ? 0 : -1;
+            }
+
+            return (buffer[i + 1] == (byte) 0x85) ? 2 : 0;
+        }
+
+        if (i + 2 >= limit) {
+            if (eof) {
+                return 0;
+            }
+
+            if (i + 1 == limit || buffer[i + 1] == (byte) 0x80) {
+                return -1;
+            }
+
+            return 0;
+        }
+
+        return (buffer[i + 1] == (byte) 0x80 && (buffer[i + 2] == (byte) 0xa8 || buffer[i + 2] == (byte) 0xa9)) ? 3 : 0;
+    }
+
+    private void skipTerminator() throws IOException {
+        if (position == limit && !fill()) {
+            return;
+        }
+
+        int b = buffer[position];
+
+        if (b == '\r') {
+            position++;
+
+            if ((position < limit || fill()) && buffer[position] == '\n') {
+                position++;
+            }
+        } else if (b == '\n') {
+            position++;
+        } else {
+            position += terminatorLength(position);
+        }
+    }
+
+    private String word(int from, int to) {
+        return new String(buffer, from, to - from, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads more input behind limit, keeping the bytes from position on.
+     *
+     * @return false, if the end of the input was reached.
+     */
+    private boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            position = 0;
+        }
+
+        if (limit == buffer.length) {
+            byte[] larger = new byte[2 * buffer.length];
+
+            System.arraycopy(buffer, 0, larger, 0, limit);
+            buffer = larger;
+        }
+
+        int n = in.read(buffer, limit, buffer.length - limit);
+
+        if (n < 0) {
+            eof = true;
+            return false;
+        }
+
+        limit += n;
+
+        return true;
+    }
+
+    private static boolean isSeparator(int b) {
+        return b == ' ' || b == '\t' || b == 0x0b || b == '\f';
+    }
+
+    private static boolean isWhitespace(int b) {
+        return (b >= '\t' && b <= '\r') || (b >= 0x1c && b <= ' ');
+    }
+
+    private static boolean isContinuation(byte b) {
+        return (b & 0xc0) == 0x80;
+    }
+}
@@ -0,0 +1,447 @@
+package dictionary;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+
+/**
+ * Implementation of the Dictionary interface as bucketized cuckoo hash table.
+ * <p>
+ * Every key has two candidate buckets of SLOTS slots each, chosen by two seeded hash functions,
+ * and is stored in one of them. A search therefore checks at most 2 * SLOTS slots:
+ * it compares the int tags of both buckets, which lie in two cache lines,
+ * and compares keys only if the tags match.
+ * <p>
+ * If both buckets of a new key are full, a random entry of them is evicted to its other bucket,
+ * possibly evicting another entry, up to MAX_KICKS times.
+ * An entry that still finds no slot is put into a small stash, which is searched as well.
+ * If the stash is full, the table is rebuilt with new seeds, or with twice the buckets if it is (nearly) full.
+ * <p>
+ * Both hash functions are derived from hashCode(), so keys with equal hash codes always compete for the same two buckets.
+ * If the table fails although it is mostly empty, such keys are kept in a growing stash,
+ * so that the table stays correct, but lookups for them are no longer O(1).
+ *
+ * @param <K> Key.
+ * @param <V> Value.
+ */
+public class CuckooHashDictionary<K, V> implements Dictionary<K, V> {
+
+    private static final int SLOTS = 4;
+    private static final int DEF_BUCKETS = 8;
+    private static final int STASH_SIZE = 4;
+
+    private static final int MAX_KICKS = 500;
+    private static final int MAX_REHASHES = 3;
+
+    // The table grows instead of being rehashed with new seeds beyond this load factor,
+    // and the stash grows instead of the table below MIN_LOAD_FACTOR.
+    private static final double MAX_LOAD_FACTOR = 0.9;
+    private static final double MIN_LOAD_FACTOR = 0.5;
+
+    // Marks the tags of occupied slots, so that empty slots have tag 0.
+    private static final int OCCUPIED = Integer.MIN_VALUE;
+
+    private final SplittableRandom random = new SplittableRandom();
+
+    private int size = 0;
+    private int seed1;
+    private int seed2;
+    private int mask;
+
+    // SLOTS slots per bucket followed by the stash; occupied slots have a tag != 0.
+    private int[] tags;
+    private K[] keys;
+    private V[] values;
+
+    private int tableLength;
+    private int stashSize = 0;
+
+    // Entry that could not be placed by place().
+    private K homelessKey;
+    private V homelessValue;
+
+    public CuckooHashDictionary() {
+        this(DEF_BUCKETS * SLOTS);
+    }
+
+    /**
+     * @param capacity number of entries that fit without growing, rounded up to a power of two of buckets.
+     */
+    public CuckooHashDictionary(int capacity) {
+        int buckets = Integer.highestOneBit(Math.max(1, (capacity + SLOTS - 1) / SLOTS - 1)) << 1;
+
+        allocate(buckets, STASH_SIZE);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void allocate(int buckets, int stashCapacity) {
+        seed1 = random.nextInt();
+        seed2 = random.nextInt();
+        mask = buckets - 1;
+        tableLength = buckets * SLOTS;
+        stashSize = 0;
+
+        tags = new int[tableLength + stashCapacity];
+        keys = (K[]) new Object[tableLength + stashCapacity];
+        values = (V[]) new Object[tableLength + stashCapacity];
+    }
+
+    /**
+     * Finalization step of MurmurHash3, spreading every bit of h over all bits of the result.
+     */
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+
+        return h;
+    }
+
+    /**
+     * Returns the index of the slot containing key, or -1 if key is not contained.
+     */
+    private int indexOf(K key) {
+        int h = key.hashCode();
+        int h1 = mix(h ^ seed1);
+        int tag = h1 | OCCUPIED;
+
+        int i = (h1 & mask) * SLOTS;
+
+        for (int s = i; s < i + SLOTS; s++) {
+            if (tags[s] == tag && key.equals(keys[s])) {
+                return s;
+            }
+        }
+
+        int j = (mix(h ^ seed2) & mask) * SLOTS;
+
+        for (int s = j; s < j + SLOTS; s++) {
+            if (tags[s] == tag && key.equals(keys[s])) {
+                return s;
+            }
+        }
+
+        for (int s = tableLength; s < tableLength + stashSize; s++) {
+            if (tags[s] == tag && key.equals(keys[s])) {
+                return s;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Stores key in a free slot of one of its buckets, evicting other entries to their other bucket if necessary,
+     * or else in the stash. Does not check whether key is already contained.
+     * Returns false and leaves the entry that found no slot in homelessKey and homelessValue if the stash is full.
+     */
+    private boolean place(K key, V value) {
+        for (int kicks = 0; ; kicks++) {
+            int h = key.hashCode();
+            int h1 = mix(h ^ seed1);
+            int tag = h1 | OCCUPIED;
+
+            int b1 = h1 & mask;
+            int b2 = mix(h ^ seed2) & mask;
+
+            int s = freeSlot(b1);
+
+            if (s < 0) {
+                s = freeSlot(b2);
+            }
+
+            if (s >= 0) {
+                set(s, tag, key, value);
+
+                return true;
+            }
+
+            if (kicks == MAX_KICKS) {
+                if (stashSize < tags.length - tableLength) {
+                    set(tableLength + stashSize++, tag, key, value);
+
+                    return true;
+                }
+
+                homelessKey = key;
+                homelessValue = value;
+
+                return false;
+            }
+
+            // Evicts a random entry of both buckets, which continues the walk at its other bucket.
+            int victim = (random.nextBoolean() ? b1 : b2) * SLOTS + random.nextInt(SLOTS);
+
+            K victimKey = keys[victim];
+            V victimValue = values[victim];
+
+            set(victim, tag, key, value);
+
+            key = victimKey;
+            value = victimValue;
+        }
+    }
+
+    private int freeSlot(int bucket) {
+        int i = bucket * SLOTS;
+
+        for (int s = i; s < i + SLOTS; s++) {
+            if (tags[s] == 0) {
+                return s;
+            }
+        }
+
+        return -1;
+    }
+
+    private void set(int s, int tag, K key, V value) {
+        tags[s] = tag;
+        keys[s] = key;
+        values[s] = value;
+    }
+
+    /**
+     * Rebuilds the table with new seeds, including the homeless entry left by place().
+     * Doubles the buckets if the table is nearly full or MAX_REHASHES attempts have failed,
+     * or doubles the stash if these attempts failed although the table is mostly empty.
+     */
+    private void rehash() {
+        K[] oldKeys = Arrays.copyOf(keys, size);
+        V[] oldValues = Arrays.copyOf(values, size);
+
+        int n = 0;
+
+        for (int s = 0; s < tableLength + stashSize; s++) {
+            if (tags[s] != 0) {
+                oldKeys[n] = keys[s];
+                oldValues[n] = values[s];
+                ++n;
+            }
+        }
+
+        oldKeys[n] = homelessKey;
+        oldValues[n] = homelessValue;
+
+        homelessKey = null;
+        homelessValue = null;
+
+        int buckets = mask + 1;
+        int stashCapacity = tags.length - tableLength;
+
+        for (int attempt = 1; ; attempt++) {
+            if (size > MAX_LOAD_FACTOR * buckets * SLOTS || attempt > MAX_REHASHES) {
+                if (size < MIN_LOAD_FACTOR * buckets * SLOTS) {
+                    stashCapacity *= 2;
+                } else {
+                    buckets *= 2;
+                }
+
+                attempt = 1;
+            }
+
+            allocate(buckets, stashCapacity);
+
+            boolean placed = true;
+
+            for (int i = 0; i < size && placed; i++) {
+                placed = place(oldKeys[i], oldValues[i]);
+            }
+
+            if (placed) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public V insert(K key, V value) {
+        int s = indexOf(key);
+
+        if (s >= 0) {
+            V oldValue = values[s];
+
+            values[s] = value;
+
+            return oldValue;
+        }
+
+        ++size;
+
+        if (!place(key, value)) {
+            rehash();
+        }
+
+        return null;
+    }
+
+    @Override
+    public V search(K key) {
+        int s = indexOf(key);
+
+        return (s < 0) ? null : values[s];
+    }
+
+    @Override
+    public V remove(K key) {
+        int s = indexOf(key);
+
+        if (s < 0) {
+            return null;
+        }
+
+        V oldValue = values[s];
+
+        --size;
+
+        if (s >= tableLength) {
+            // The last entry of the stash fills the gap.
+            int last = tableLength + --stashSize;
+
+            set(s, tags[last], keys[last], values[last]);
+            set(last, 0, null, null);
+        } else {
+            set(s, 0, null, null);
+
+            if (stashSize > 0) {
+                unstash(s / SLOTS);
+            }
+        }
+
+        return oldValue;
+    }
+
+    /**
+     * Moves an entry of the stash that belongs to bucket into its free slot.
+     */
+    private void unstash(int bucket) {
+        for (int s = tableLength; s < tableLength + stashSize; s++) {
+            K key = keys[s];
+            int h = key.hashCode();
+
+            if ((mix(h ^ seed1) & mask) == bucket || (mix(h ^ seed2) & mask) == bucket) {
+                int tag = tags[s];
+                V value = values[s];
+                int last = tableLength + --stashSize;
+
+                set(s, tags[last], keys[last], values[last]);
+                set(last, 0, null, null);
+                set(freeSlot(bucket), tag, key, value);
+
+                return;
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Counts the free slots of the table and the stash as spare capacity.
+     */
+    @Override
+    public MemoryFootprint footprint(boolean withPayload) {
+        int slot = Integer.BYTES + 2 * MemoryFootprint.REFERENCE;
+
+        // SplittableRandom has two long fields.
+        long total = MemoryFootprint.object(6L * MemoryFootprint.REFERENCE + 6 * Integer.BYTES)
+                + MemoryFootprint.object(2 * Long.BYTES)
+                + MemoryFootprint.array(tags.length, Integer.BYTES)
+                + 2 * MemoryFootprint.array(tags.length, MemoryFootprint.REFERENCE);
+
+        long spare = (long) (tags.length - size) * slot;
+
+        return new MemoryFootprint(total - spare, spare, withPayload ? MemoryFootprint.payload(this) : 0);
+    }
+
+    /**
+     * Returns the fraction of the slots of the table that are occupied, not counting the stash.
+     *
+     * @return load factor of the table.
+     */
+    public double loadFactor() {
+        return (double) (size - stashSize) / tableLength;
+    }
+
+    @Override
+    public Iterator<Entry<K, V>> iterator() {
+        Cursor<K, V> cursor = cursor();
+
+        return new Iterator<>() {
+            boolean advanced = cursor.advance();
+
+            @Override
+            public boolean hasNext() {
+                return advanced;
+            }
+
+            @Override
+            public Entry<K, V> next() {
+                if (!advanced) {
+                    throw new NoSuchElementException();
+                }
+
+                Entry<K, V> entry = new Entry<>(cursor.key(), cursor.value());
+
+                advanced = cursor.advance();
+
+                return entry;
+            }
+        };
+    }
+
+    @Override
+    public Cursor<K, V> cursor() {
+        return new Cursor<>() {
+            int s = -1;
+
+            @Override
+            public boolean advance() {
+                int end = tableLength + stashSize;
+
+                do {
+                    ++s;
+                } while (s < end && tags[s] == 0);
+
+                if (s >= end) {
+                    s = end;
+
+                    return false;
+                }
+
+                return true;
+            }
+
+            @Override
+            public K key() {
+                return keys[current()];
+            }
+
+            @Override
+            public V value() {
+                return values[current()];
+            }
+
+            @Override
+            public V setValue(V value) {
+                V oldValue = values[current()];
+
+                values[s] = value;
+
+                return oldValue;
+            }
+
+            private int current() {
+                if (s < 0 || s >= tableLength + stashSize) {
+                    throw new NoSuchElementException();
+                }
+
+                return s;
+            }
+        };
+    }
+}
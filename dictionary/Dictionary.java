@@ -4,6 +4,11 @@
 package dictionary;
 
 import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Collection of entries.
@@ -36,6 +41,26 @@ public interface Dictionary<K, V> extends Iterable<Dictionary.Entry<K, V>> {
      */
     V search(K key);
 
+    /**
+     * Looks up all specified keys at once.
+     * After the call out[i] holds the value to which keys[i] is mapped,
+     * or null if this map contains no mapping for keys[i].
+     * Implementations may reorder the lookups internally to share work between neighbouring keys.
+     *
+     * @param keys the keys whose associated values are to be returned.
+     * @param out  array receiving the values; must be at least as long as keys.
+     * @throws IllegalArgumentException if out is shorter than keys.
+     */
+    default void searchAll(K[] keys, V[] out) {
+        if (out.length < keys.length) {
+            throw new IllegalArgumentException("out is shorter than keys");
+        }
+
+        for (int i = 0; i < keys.length; i++) {
+            out[i] = search(keys[i]);
+        }
+    }
+
     /**
      * Removes the key-vaue-pair associated with the key.
      * Returns the value to which the key was previously associated,
@@ -53,6 +78,14 @@ public interface Dictionary<K, V> extends Iterable<Dictionary.Entry<K, V>> {
      */
     int size();
 
+    /**
+     * Estimates the heap used by this dictionary, including spare capacity.
+     *
+     * @param withPayload if true, the keys and values are counted as well, which visits all entries.
+     * @return estimated memory footprint.
+     */
+    MemoryFootprint footprint(boolean withPayload);
+
     /**
      * Returns an iterator over the entries in this dictionary.
      * There are no guarantees concerning the order in which the elements are returned
@@ -63,6 +96,130 @@ public interface Dictionary<K, V> extends Iterable<Dictionary.Entry<K, V>> {
     @Override
     public Iterator<Entry<K, V>> iterator();
 
+    /**
+     * Returns a cursor over the entries in this dictionary, positioned before the first entry.
+     * Unlike the iterator, a cursor does not hand out entry objects,
+     * so implementations can scan all entries without allocating.
+     * The order is the same as the order of the iterator.
+     * The default implementation is based on the iterator.
+     *
+     * @return a Cursor over the entries in this dictionary
+     */
+    default Cursor<K, V> cursor() {
+        Iterator<Entry<K, V>> iterator = iterator();
+
+        return new Cursor<>() {
+            Entry<K, V> entry;
+
+            @Override
+            public boolean advance() {
+                entry = iterator.hasNext() ? iterator.next() : null;
+
+                return entry != null;
+            }
+
+            @Override
+            public K key() {
+                return current().getKey();
+            }
+
+            @Override
+            public V value() {
+                return current().getValue();
+            }
+
+            @Override
+            public V setValue(V value) {
+                // The iterator might hand out copies, so the value is replaced in the dictionary itself.
+                V oldValue = insert(current().getKey(), value);
+
+                entry.setValue(value);
+
+                return oldValue;
+            }
+
+            private Entry<K, V> current() {
+                if (entry == null) {
+                    throw new NoSuchElementException();
+                }
+
+                return entry;
+            }
+        };
+    }
+
+    /**
+     * Returns a spliterator over the entries in this dictionary.
+     * The default implementation wraps the iterator and only reports the size;
+     * implementations should override it with a spliterator that splits their structure evenly.
+     *
+     * @return a Spliterator over the entries in this dictionary
+     */
+    @Override
+    default Spliterator<Entry<K, V>> spliterator() {
+        return Spliterators.spliterator(iterator(), size(), 0);
+    }
+
+    /**
+     * Returns a sequential stream over the entries in this dictionary.
+     *
+     * @return a sequential Stream over the entries in this dictionary
+     */
+    default Stream<Entry<K, V>> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Returns a parallel stream over the entries in this dictionary.
+     *
+     * @return a parallel Stream over the entries in this dictionary
+     */
+    default Stream<Entry<K, V>> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * A cursor over the entries of a dictionary.
+     * The cursor is positioned on one entry at a time and gives access to its key and value in place.
+     * The dictionary must not be structurally modified while a cursor is in use.
+     *
+     * @param <K> Key.
+     * @param <V> Value.
+     */
+    interface Cursor<K, V> {
+        /**
+         * Moves the cursor to the next entry.
+         *
+         * @return true, if the cursor is positioned on an entry, false if there are no more entries.
+         */
+        boolean advance();
+
+        /**
+         * Returns the key of the entry the cursor is positioned on.
+         *
+         * @return key of the current entry.
+         * @throws NoSuchElementException if the cursor is not positioned on an entry.
+         */
+        K key();
+
+        /**
+         * Returns the value of the entry the cursor is positioned on.
+         *
+         * @return value of the current entry.
+         * @throws NoSuchElementException if the cursor is not positioned on an entry.
+         */
+        V value();
+
+        /**
+         * Replaces the value of the entry the cursor is positioned on.
+         *
+         * @param value new value to be stored in the current entry.
+         * @return old value of the current entry.
+         * @throws NoSuchElementException if the cursor is not positioned on an entry.
+         */
+        V setValue(V value);
+    }
+
     /**
      * A dictionary entry (key-value pair).
      *
@@ -111,5 +268,15 @@ public interface Dictionary<K, V> extends Iterable<Dictionary.Entry<K, V>> {
             value = v;
             return retVal;
         }
+
+        /**
+         * Returns key=value, like the entries of java.util.Map.
+         *
+         * @return string representation of this entry
+         */
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
     }
 }
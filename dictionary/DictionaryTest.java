@@ -6,6 +6,15 @@
  */
 package dictionary;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
 /**
  * Static test methods for different Dictionary implementations.
  *
@@ -16,15 +25,78 @@ public class DictionaryTest {
     /**
      * @param args not used.
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         testSortedArrayDictionary();
+        testLazySortedArrayDictionary();
+        testPrefixCachedDictionaries();
         testHashDictionary();
+        testCuckooHashDictionary();
         testBinaryTreeDictionary();
+        testSplayTreeDictionary();
+        testSynchronizedDictionary();
+        testAdaptiveDictionary();
+        testFuzzyDictionary();
+        testFrontCodedDictionary();
+        testBidirectionalDictionary();
+        testTranslationFileWatcher();
+        testTrace();
+        testCommandReader();
     }
 
     private static void testSortedArrayDictionary() {
-        Dictionary<String, String> dict = new SortedArrayDictionary<>();
+        RankedDictionary<String, String> dict = new SortedArrayDictionary<>();
         testDict(dict);
+        testRanked(dict);
+        testSortedArraySetOperations();
+    }
+
+    private static void testSortedArraySetOperations() {
+        System.out.println("Set Operations:");
+        SortedArrayDictionary<String, String> base = SortedArrayDictionary.withPrefixCache(false);
+        base.insert("gehen", "go");
+        base.insert("lesen", "read");
+        base.insert("rennen", "run");
+        SortedArrayDictionary<String, String> overlay = new SortedArrayDictionary<>();
+        overlay.insert("gehen", "walk");
+        overlay.insert("singen", "sing");
+        base.union(overlay);
+        System.out.println(base.size() + " " + overlay.size());     // 4 2
+        System.out.println(base.search("gehen"));                   // walk
+
+        SortedArrayDictionary<String, String> removed = new SortedArrayDictionary<>();
+        removed.insert("lesen", "read");
+        removed.insert("tanzen", "dance");
+        base.difference(removed);
+        for (Dictionary.Entry<String, String> e : base) {
+            System.out.println(e.getKey() + ": " + e.getValue()); // gehen, rennen, singen
+        }
+
+        base.intersection(overlay);
+        for (Dictionary.Entry<String, String> e : base) {
+            System.out.println(e.getKey() + ": " + e.getValue()); // gehen: walk, singen: sing
+        }
+    }
+
+    private static void testLazySortedArrayDictionary() {
+        SortedArrayDictionary<String, String> dict = new SortedArrayDictionary<>(null, true);
+        testDict(dict);
+        testRanked(dict);
+        System.out.println(dict.removeAll(Arrays.asList("tanzen", "fliegen", "beten", "tanzen"))); // 2
+        System.out.println(dict.size());                                // 15
+        System.out.println(dict.search("beten"));                      // null
+    }
+
+    private static void testPrefixCachedDictionaries() {
+        SortedArrayDictionary<String, String> dict = SortedArrayDictionary.withPrefixCache(false);
+        testDict(dict);
+        testRanked(dict);
+        BinaryTreeDictionary<String, String> tree = BinaryTreeDictionary.withPrefixCache();
+        testDict(tree);
+        testRanked(tree);
+        // Keys with equal prefix are decided by the comparator.
+        tree.insert("tanzend", "dancing");
+        System.out.println(tree.search("tanzend"));                   // dancing
+        System.out.println(tree.rank("tanzend"));                     // 16
     }
 
     private static void testHashDictionary() {
@@ -32,9 +104,137 @@ public class DictionaryTest {
         testDict(dict);
     }
 
+    private static void testCuckooHashDictionary() {
+        Dictionary<String, String> dict = new CuckooHashDictionary<>(3);
+        testDict(dict);
+    }
+
+    private static void testSplayTreeDictionary() {
+        Dictionary<String, String> dict = new SplayTreeDictionary<>();
+        testDict(dict);
+    }
+
+    private static void testSynchronizedDictionary() {
+        Dictionary<String, String> dict = new SynchronizedDictionary<>(new BinaryTreeDictionary<>());
+        testDict(dict);
+    }
+
+    private static void testAdaptiveDictionary() {
+        AdaptiveDictionary<String, String> dict = new AdaptiveDictionary<>();
+        testDict(dict);
+        System.out.println(dict.getRepresentation());                  // HASH
+        // Scanning only: the entries are copied into a sorted array in the background.
+        for (int i = 0; i < 2000; i++) {
+            Dictionary.Cursor<String, String> cursor = dict.cursor();
+            while (cursor.advance()) {
+                cursor.value();
+            }
+        }
+        try {
+            dict.awaitMigration();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println(dict.getRepresentation());                  // SORTED_ARRAY
+        System.out.println(dict.search("tanzen"));                      // DANCE
+    }
+
+    private static void testFuzzyDictionary() {
+        FuzzyDictionary<String> dict = new FuzzyDictionary<>(new HashDictionary<>());
+        testDict(dict);
+        System.out.println(dict.similarKeys("schreiten", 1));           // [schreiben, schreien]
+        System.out.println(dict.similarKeys("tanken", 2));              // [tanzen]
+        dict.remove("schreien");
+        System.out.println(dict.similarKeys("schreiten", 1));           // [schreiben]
+    }
+
+    private static void testBidirectionalDictionary() {
+        BidirectionalDictionary<String, String> dict = new BidirectionalDictionary<>(new SortedArrayDictionary<>());
+        testDict(dict);
+        dict.insert("laufen", "RUN");
+        System.out.println(dict.searchKeys("RUN"));                     // [rennen, laufen]
+        dict.insert("rennen", "RACE");
+        System.out.println(dict.searchKeys("RUN"));                     // [laufen]
+        System.out.println(dict.searchKeys("RACE"));                    // [rennen]
+        dict.remove("laufen");
+        System.out.println(dict.searchKeys("RUN"));                     // []
+    }
+
+    private static void testTranslationFileWatcher() throws IOException {
+        Path file = Files.createTempFile("dtengl", ".txt");
+        Dictionary<String, String> dict = new HashDictionary<>();
+        TranslationFileWatcher watcher = new TranslationFileWatcher(file, dict);
+        System.out.println("===== New Test Case ========================");
+        System.out.println("test " + watcher.getClass());
+        Files.write(file, List.of("gehen go", "lesen read", "tanzen dance"));
+        System.out.println(watcher.reload().getInserted());             // 3
+        Files.write(file, List.of("gehen walk", "schwimmen swim", "tanzen dance"));
+        TranslationFileWatcher.Reload reload = watcher.reload();
+        System.out.println(reload.getInserted() + " " + reload.getChanged() + " " + reload.getRemoved()); // 1 1 1
+        System.out.println(dict.size());                                // 3
+        System.out.println(dict.search("gehen"));                       // walk
+        System.out.println(dict.search("lesen"));                       // null
+        System.out.println(watcher.reload().getDeltaSize());            // 0
+        Files.delete(file);
+    }
+
+    private static void testTrace() throws IOException {
+        Path file = Files.createTempFile("trace", ".bin");
+        try (Trace.Writer writer = new Trace.Writer(file)) {
+            Dictionary<String, String> dict = new TracingDictionary(new HashDictionary<>(), writer);
+            dict.insert("gehen", "go");
+            dict.searchAll(new String[]{"gehen", "lesen"}, new String[2]);
+            dict.remove("gehen");
+            dict.cursor();
+        }
+        Trace trace = Trace.read(file);
+        System.out.println("===== New Test Case ========================");
+        System.out.println("test " + trace.getClass());
+        System.out.println(trace.size());                               // 5
+        System.out.println(trace.getKey(0) + " " + trace.getValue(0));  // gehen go
+        System.out.println(trace.getKey(2));                            // lesen
+        Dictionary<String, String> replayed = new HashDictionary<>();
+        for (int i = 0; i < trace.size(); i++) {
+            System.out.print(trace.apply(i, replayed) + " ");           // 0 1 0 1 0
+        }
+        System.out.println();
+        Files.delete(file);
+    }
+
+    private static void testCommandReader() throws IOException {
+        byte[] input = "s gehen  lesen\r\n  i über over\n\t\n\nexit\n \n".getBytes(StandardCharsets.UTF_8);
+        CommandReader reader = new CommandReader(new ByteArrayInputStream(input));
+        System.out.println("===== New Test Case ========================");
+        System.out.println("test " + reader.getClass());
+        while (reader.hasNext()) {
+            System.out.print(Arrays.toString(reader.next()) + " ");     // [s, gehen, lesen] [, i, über, over] [] [] [exit]
+        }
+        System.out.println();
+    }
+
+    private static void testFrontCodedDictionary() {
+        Dictionary<String, String> source = new HashDictionary<>();
+        source.insert("schreiben", "write");
+        source.insert("schreien", "cry");
+        source.insert("schwimmen", "swim");
+        source.insert("tanzen", "dance");
+        source.insert("übersetzen", "translate");
+        Dictionary<String, String> dict = new FrontCodedDictionary(source);
+        System.out.println("===== New Test Case ========================");
+        System.out.println("test " + dict.getClass());
+        System.out.println(dict.size());                                // 5
+        for (Dictionary.Entry<String, String> e : dict) {
+            System.out.println(e.getKey() + ": " + e.getValue());       // schreiben, schreien, schwimmen, tanzen, übersetzen
+        }
+        System.out.println(dict.search("schreien"));                    // cry
+        System.out.println(dict.search("schrei"));                      // null
+        System.out.println(dict.search("übersetzen"));                  // translate
+    }
+
     private static void testBinaryTreeDictionary() {
-        Dictionary<String, String> dict = new BinaryTreeDictionary<>();
+        RankedDictionary<String, String> dict = new BinaryTreeDictionary<>();
         testDict(dict);
+        testRanked(dict);
 
         // Test für BinaryTreeDictionary mit prettyPrint 
         // (siehe Aufgabe 10; Programmiertechnik 2).
@@ -83,6 +283,59 @@ public class DictionaryTest {
         for (Dictionary.Entry<Integer, Integer> e : btd) {
             System.out.println(e.getKey() + ": " + e.getValue());
         }
+
+        // Fingersuche: sortierte Zugriffe muessen fast nie bis zur Wurzel hochlaufen.
+        BinaryTreeDictionary<Integer, Integer> ftd = new BinaryTreeDictionary<>();
+        for (int i = 0; i < 1000; i++) {
+            ftd.insert(i, i);
+        }
+        ftd.resetFingerStatistics();
+        for (int i = 0; i < 1000; i++) {
+            ftd.search(i);
+        }
+        System.out.println(ftd.getFingerSearches());               // 1000
+        System.out.println(ftd.getFingerHitRate() > 0.9);          // true
+
+        testBinaryTreeSetOperations();
+    }
+
+    private static void testBinaryTreeSetOperations() {
+        System.out.println("Set Operations:");
+        BinaryTreeDictionary<String, String> base = new BinaryTreeDictionary<>();
+        base.insert("gehen", "go");
+        base.insert("lesen", "read");
+        base.insert("rennen", "run");
+        BinaryTreeDictionary<String, String> overlay = new BinaryTreeDictionary<>();
+        overlay.insert("gehen", "walk");
+        overlay.insert("singen", "sing");
+        base.union(overlay);
+        System.out.println(base.size() + " " + overlay.size());     // 4 0
+        System.out.println(base.search("gehen"));                   // walk
+
+        BinaryTreeDictionary<String, String> upper = base.split("m");
+        System.out.println(base.size() + " " + upper.size());       // 2 2
+        base = BinaryTreeDictionary.join(base, upper);
+        System.out.println(base.size() + " " + upper.size());       // 4 0
+
+        BinaryTreeDictionary<String, String> removed = new BinaryTreeDictionary<>();
+        removed.insert("lesen", "read");
+        removed.insert("tanzen", "dance");
+        base.difference(removed);
+        for (Dictionary.Entry<String, String> e : base) {
+            System.out.println(e.getKey() + ": " + e.getValue()); // gehen, rennen, singen
+        }
+    }
+
+    private static void testRanked(RankedDictionary<String, String> dict) {
+        System.out.println(dict.select(0).getKey());                    // arbeiten
+        System.out.println(dict.select(16).getKey());                   // tauchen
+        System.out.println(dict.rank("gehen"));                         // 4
+        System.out.println(dict.rank("hoffen"));                        // 5
+        Iterator<Dictionary.Entry<String, String>> it = dict.iteratorFrom(14);
+        while (it.hasNext()) {
+            System.out.print(it.next().getKey() + " ");                 // starten tanzen tauchen
+        }
+        System.out.println();
     }
 
     private static void testDict(Dictionary<String, String> dict) {
@@ -117,6 +370,18 @@ public class DictionaryTest {
         for (Dictionary.Entry<String, String> e : dict) {
             System.out.println(e.getKey() + ": " + e.getValue() + " search: " + dict.search(e.getKey()));
         }
+
+        String[] keys = {"tanzen", "fliegen", "arbeiten", "tanzen", "zeigen", "beten", "aaa"};
+        String[] values = new String[keys.length];
+        dict.searchAll(keys, values);
+        System.out.println(Arrays.toString(values)); // [dance, null, work, dance, null, pray, null]
+        System.out.println(dict.parallelStream().count() == dict.size()); // true
+        System.out.println(dict.stream().map(Dictionary.Entry::getKey).sorted().findFirst().get()); // arbeiten
+        Dictionary.Cursor<String, String> cursor = dict.cursor();
+        while (cursor.advance()) {
+            cursor.setValue(cursor.value().toUpperCase());
+        }
+        System.out.println(dict.search("tanzen"));                    // DANCE
     }
 
 }
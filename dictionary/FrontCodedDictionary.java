@@ -0,0 +1,367 @@
+package dictionary;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable sorted dictionary of strings that stores keys front-coded and values in a byte heap.
+ * <p>
+ * The keys are sorted by their UTF-8 encoding and grouped into blocks of BLOCK_SIZE keys.
+ * The first key of a block is stored completely, every further key only as the length of the prefix
+ * it shares with its predecessor followed by the remaining bytes.
+ * A search binary-searches the first keys of the blocks and then scans a single block,
+ * comparing only the stored suffixes with the searched key.
+ * <p>
+ * The values are stored UTF-8 encoded one after another in a single byte array.
+ *
+ * @see SortedArrayDictionary
+ */
+public class FrontCodedDictionary implements Dictionary<String, String> {
+
+    private static final int BLOCK_SIZE = 16;
+
+    private final int size;
+
+    // front-coded keys and the offset of every block in it
+    private final byte[] keys;
+    private final int[] blocks;
+
+    // UTF-8 encoded values and the offset of every value in it; the last offset is the end of the heap
+    private final byte[] values;
+    private final int[] valueOffsets;
+
+    private final int maxKeyLength;
+
+    /**
+     * Creates a front-coded copy of dictionary.
+     *
+     * @param dictionary dictionary whose entries are copied.
+     */
+    public FrontCodedDictionary(Dictionary<String, String> dictionary) {
+        size = dictionary.size();
+
+        byte[][] keyBytes = new byte[size][];
+        byte[][] valueBytes = new byte[size][];
+        Integer[] order = new Integer[size];
+
+        Cursor<String, String> cursor = dictionary.cursor();
+
+        for (int i = 0; cursor.advance(); i++) {
+            keyBytes[i] = cursor.key().getBytes(StandardCharsets.UTF_8);
+            valueBytes[i] = cursor.value().getBytes(StandardCharsets.UTF_8);
+            order[i] = i;
+        }
+
+        Arrays.sort(order, (i, j) -> Arrays.compareUnsigned(keyBytes[i], keyBytes[j]));
+
+        ByteArrayOutputStream keyHeap = new ByteArrayOutputStream();
+        ByteArrayOutputStream valueHeap = new ByteArrayOutputStream();
+
+        blocks = new int[(size + BLOCK_SIZE - 1) / BLOCK_SIZE];
+        valueOffsets = new int[size + 1];
+
+        int maxLength = 0;
+        byte[] previous = null;
+
+        for (int i = 0; i < size; i++) {
+            byte[] key = keyBytes[order[i]];
+
+            if (i % BLOCK_SIZE == 0) {
+                blocks[i / BLOCK_SIZE] = keyHeap.size();
+
+                writeVarInt(keyHeap, key.length);
+                keyHeap.write(key, 0, key.length);
+            } else {
+                int shared = Arrays.mismatch(previous, key);
+
+                writeVarInt(keyHeap, shared);
+                writeVarInt(keyHeap, key.length - shared);
+                keyHeap.write(key, shared, key.length - shared);
+            }
+
+            valueOffsets[i] = valueHeap.size();
+            valueHeap.write(valueBytes[order[i]], 0, valueBytes[order[i]].length);
+
+            maxLength = Math.max(maxLength, key.length);
+            previous = key;
+        }
+
+        valueOffsets[size] = valueHeap.size();
+
+        keys = keyHeap.toByteArray();
+        values = valueHeap.toByteArray();
+        maxKeyLength = maxLength;
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream out, int v) {
+        while ((v & ~0x7F) != 0) {
+            out.write((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+
+        out.write(v);
+    }
+
+    /**
+     * Not supported, the dictionary is immutable.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public String insert(String key, String value) {
+        throw new UnsupportedOperationException("FrontCodedDictionary is immutable");
+    }
+
+    @Override
+    public String search(String key) {
+        int i = indexOf(key.getBytes(StandardCharsets.UTF_8));
+
+        return (i < 0) ? null : value(i);
+    }
+
+    /**
+     * Not supported, the dictionary is immutable.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public String remove(String key) {
+        throw new UnsupportedOperationException("FrontCodedDictionary is immutable");
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The payload are the front-coded keys and the value heap, which are counted whether or not withPayload is set,
+     * but only reported as payload if it is.
+     */
+    @Override
+    public MemoryFootprint footprint(boolean withPayload) {
+        long heaps = MemoryFootprint.array(keys.length, 1) + MemoryFootprint.array(values.length, 1);
+
+        long structure = MemoryFootprint.object(2 * Integer.BYTES + 4L * MemoryFootprint.REFERENCE)
+                + MemoryFootprint.array(blocks.length, Integer.BYTES)
+                + MemoryFootprint.array(valueOffsets.length, Integer.BYTES);
+
+        return withPayload ? new MemoryFootprint(structure, 0, heaps) : new MemoryFootprint(structure + heaps, 0, 0);
+    }
+
+    private String value(int i) {
+        return new String(values, valueOffsets[i], valueOffsets[i + 1] - valueOffsets[i], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the index of key in the sorted order, or -1 if key is not contained.
+     */
+    private int indexOf(byte[] key) {
+        // last block whose first key is less than or equal to key
+        int li = 0;
+        int re = blocks.length - 1;
+        int block = -1;
+
+        while (re >= li) {
+            int m = (li + re) >>> 1;
+
+            int pos = blocks[m];
+            int length = readVarInt(keys, pos);
+
+            pos += varIntLength(length);
+
+            int c = Arrays.compareUnsigned(keys, pos, pos + length, key, 0, key.length);
+
+            if (c == 0) {
+                return m * BLOCK_SIZE;
+            }
+
+            if (c < 0) {
+                block = m;
+                li = m + 1;
+            } else {
+                re = m - 1;
+            }
+        }
+
+        if (block < 0) {
+            return -1;
+        }
+
+        return scanBlock(block, key);
+    }
+
+    /**
+     * Scans the keys of block, whose first key is less than key, without decoding them:
+     * matched is the length of the common prefix of the previous key and key.
+     * A key sharing more than matched bytes with its predecessor is still less than key,
+     * a key sharing fewer bytes is already greater.
+     */
+    private int scanBlock(int block, byte[] key) {
+        int pos = blocks[block];
+        int length = readVarInt(keys, pos);
+
+        pos += varIntLength(length);
+
+        int matched = Arrays.mismatch(keys, pos, pos + length, key, 0, key.length);
+
+        pos += length;
+
+        int end = Math.min(size, (block + 1) * BLOCK_SIZE);
+
+        for (int i = block * BLOCK_SIZE + 1; i < end; i++) {
+            int shared = readVarInt(keys, pos);
+
+            pos += varIntLength(shared);
+
+            int suffix = readVarInt(keys, pos);
+
+            pos += varIntLength(suffix);
+
+            if (shared < matched) {
+                return -1;
+            }
+
+            if (shared == matched) {
+                int mismatch = Arrays.mismatch(keys, pos, pos + suffix, key, matched, key.length);
+
+                if (mismatch < 0) {
+                    return i;
+                }
+
+                if (mismatch == suffix || (matched + mismatch < key.length && (keys[pos + mismatch] & 0xFF) < (key[matched + mismatch] & 0xFF))) {
+                    matched += mismatch;
+                } else {
+                    return -1;
+                }
+            }
+
+            pos += suffix;
+        }
+
+        return -1;
+    }
+
+    private static int readVarInt(byte[] in, int pos) {
+        int v = 0;
+
+        for (int shift = 0; ; shift += 7) {
+            byte b = in[pos++];
+
+            v |= (b & 0x7F) << shift;
+
+            if (b >= 0) {
+                return v;
+            }
+        }
+    }
+
+    private static int varIntLength(int v) {
+        int length = 1;
+
+        while ((v & ~0x7F) != 0) {
+            v >>>= 7;
+            ++length;
+        }
+
+        return length;
+    }
+
+    @Override
+    public Iterator<Entry<String, String>> iterator() {
+        Cursor<String, String> cursor = cursor();
+
+        return new Iterator<>() {
+            boolean advanced = cursor.advance();
+
+            @Override
+            public boolean hasNext() {
+                return advanced;
+            }
+
+            @Override
+            public Entry<String, String> next() {
+                if (!advanced) {
+                    throw new NoSuchElementException();
+                }
+
+                Entry<String, String> entry = new Entry<>(cursor.key(), cursor.value());
+
+                advanced = cursor.advance();
+
+                return entry;
+            }
+        };
+    }
+
+    /**
+     * Returns a cursor that decodes the keys one after another into a reused buffer.
+     * setValue is not supported.
+     */
+    @Override
+    public Cursor<String, String> cursor() {
+        return new Cursor<>() {
+            final byte[] buffer = new byte[maxKeyLength];
+            int length;
+            int i = -1;
+            int pos = 0;
+
+            @Override
+            public boolean advance() {
+                if (i >= size - 1) {
+                    i = size;
+
+                    return false;
+                }
+
+                ++i;
+
+                int shared = 0;
+
+                if (i % BLOCK_SIZE != 0) {
+                    shared = readVarInt(keys, pos);
+                    pos += varIntLength(shared);
+                }
+
+                int suffix = readVarInt(keys, pos);
+
+                pos += varIntLength(suffix);
+
+                System.arraycopy(keys, pos, buffer, shared, suffix);
+
+                pos += suffix;
+                length = shared + suffix;
+
+                return true;
+            }
+
+            @Override
+            public String key() {
+                check();
+
+                return new String(buffer, 0, length, StandardCharsets.UTF_8);
+            }
+
+            @Override
+            public String value() {
+                check();
+
+                return FrontCodedDictionary.this.value(i);
+            }
+
+            @Override
+            public String setValue(String value) {
+                throw new UnsupportedOperationException("FrontCodedDictionary is immutable");
+            }
+
+            private void check() {
+                if (i < 0 || i >= size) {
+                    throw new NoSuchElementException();
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,118 @@
+package dictionary;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+
+/**
+ * Dictionary with string keys that additionally finds keys similar to a given word.
+ * <p>
+ * All operations are delegated to the backing dictionary.
+ * Its keys are indexed in a BkTree that is updated by every insert and remove,
+ * so keys within a small edit distance are found without comparing the word with every key.
+ *
+ * @param <V> Value.
+ */
+public class FuzzyDictionary<V> implements Dictionary<String, V> {
+
+    private final Dictionary<String, V> dictionary;
+    private final BkTree index = new BkTree();
+
+    /**
+     * @param dictionary backing dictionary; must not be modified except through this dictionary.
+     */
+    public FuzzyDictionary(Dictionary<String, V> dictionary) {
+        this.dictionary = dictionary;
+
+        Cursor<String, V> cursor = dictionary.cursor();
+
+        while (cursor.advance()) {
+            index.add(cursor.key());
+        }
+    }
+
+    /**
+     * Returns the backing dictionary.
+     *
+     * @return backing dictionary.
+     */
+    public Dictionary<String, V> getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Returns all keys within Levenshtein distance maxDistance of key,
+     * ordered by distance and alphabetically within the same distance.
+     *
+     * @param key         word to which similar keys are searched.
+     * @param maxDistance maximal number of inserted, removed or replaced characters.
+     * @return similar keys.
+     */
+    public List<String> similarKeys(String key, int maxDistance) {
+        return index.search(key, maxDistance);
+    }
+
+    @Override
+    public V insert(String key, V value) {
+        int size = dictionary.size();
+
+        V oldValue = dictionary.insert(key, value);
+
+        if (dictionary.size() > size) {
+            index.add(key);
+        }
+
+        return oldValue;
+    }
+
+    @Override
+    public V search(String key) {
+        return dictionary.search(key);
+    }
+
+    @Override
+    public void searchAll(String[] keys, V[] out) {
+        dictionary.searchAll(keys, out);
+    }
+
+    @Override
+    public V remove(String key) {
+        int size = dictionary.size();
+
+        V oldValue = dictionary.remove(key);
+
+        if (dictionary.size() < size) {
+            index.remove(key);
+        }
+
+        return oldValue;
+    }
+
+    @Override
+    public int size() {
+        return dictionary.size();
+    }
+
+    @Override
+    public MemoryFootprint footprint(boolean withPayload) {
+        // The index shares its keys with the backing dictionary.
+        return new MemoryFootprint(MemoryFootprint.object(2L * MemoryFootprint.REFERENCE), 0, 0)
+                .plus(index.footprint())
+                .plus(dictionary.footprint(withPayload));
+    }
+
+    @Override
+    public Iterator<Entry<String, V>> iterator() {
+        return dictionary.iterator();
+    }
+
+    @Override
+    public Cursor<String, V> cursor() {
+        return dictionary.cursor();
+    }
+
+    @Override
+    public Spliterator<Entry<String, V>> spliterator() {
+        return dictionary.spliterator();
+    }
+}
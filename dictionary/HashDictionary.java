@@ -1,6 +1,9 @@
 package dictionary;
 
 import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 
 public class HashDictionary<K, V> implements Dictionary<K, V> {
 
@@ -140,6 +143,37 @@ public class HashDictionary<K, V> implements Dictionary<K, V> {
         return entry.getValue();
     }
 
+    @Override
+    public void searchAll(K[] keys, V[] out) {
+        if (out.length < keys.length) {
+            throw new IllegalArgumentException("out is shorter than keys");
+        }
+
+        // All bucket indices are computed before the first bucket is touched,
+        // so the loads of the bucket heads are independent of each other and can overlap.
+        int[] hashes = new int[keys.length];
+
+        for (int i = 0; i < keys.length; i++) {
+            hashes[i] = hash(keys[i], data.length);
+        }
+
+        Node<K, V>[] heads = new Node[keys.length];
+
+        for (int i = 0; i < keys.length; i++) {
+            heads[i] = data[hashes[i]];
+        }
+
+        for (int i = 0; i < keys.length; i++) {
+            Node<K, V> node = heads[i];
+
+            while (node != null && !node.entry.getKey().equals(keys[i])) {
+                node = node.next;
+            }
+
+            out[i] = (node == null) ? null : node.entry.getValue();
+        }
+    }
+
     @Override
     public V remove(K key) {
         int hash = hash(key, data.length);
@@ -153,7 +187,7 @@ public class HashDictionary<K, V> implements Dictionary<K, V> {
         if (node.entry.getKey().equals(key)) {
             --size;
 
-            data[hash] = null;
+            data[hash] = node.next;
 
             return node.entry.getValue();
         }
@@ -180,6 +214,30 @@ public class HashDictionary<K, V> implements Dictionary<K, V> {
         return size;
     }
 
+    /**
+     * Counts the empty buckets as spare capacity.
+     */
+    @Override
+    public MemoryFootprint footprint(boolean withPayload) {
+        int empty = 0;
+
+        for (Node<K, V> node : data) {
+            if (node == null) {
+                empty++;
+            }
+        }
+
+        long node = MemoryFootprint.object(2L * MemoryFootprint.REFERENCE);
+
+        long total = MemoryFootprint.object(Integer.BYTES + MemoryFootprint.REFERENCE)
+                + MemoryFootprint.array(data.length, MemoryFootprint.REFERENCE)
+                + (long) size * (node + MemoryFootprint.entry());
+
+        long spare = (long) empty * MemoryFootprint.REFERENCE;
+
+        return new MemoryFootprint(total - spare, spare, withPayload ? MemoryFootprint.payload(this) : 0);
+    }
+
     public Iterator<Entry<K, V>> iterator() {
         return new Iterator<>() {
             int index = 0;
@@ -218,6 +276,140 @@ public class HashDictionary<K, V> implements Dictionary<K, V> {
         };
     }
 
+    @Override
+    public Cursor<K, V> cursor() {
+        return new Cursor<>() {
+            int index = -1;
+            Node<K, V> currentNode;
+
+            @Override
+            public boolean advance() {
+                if (currentNode != null) {
+                    currentNode = currentNode.next;
+                }
+
+                while (currentNode == null && index < data.length - 1) {
+                    currentNode = data[++index];
+                }
+
+                if (currentNode == null) {
+                    index = data.length;
+                }
+
+                return currentNode != null;
+            }
+
+            @Override
+            public K key() {
+                return current().getKey();
+            }
+
+            @Override
+            public V value() {
+                return current().getValue();
+            }
+
+            @Override
+            public V setValue(V value) {
+                return current().setValue(value);
+            }
+
+            private Entry<K, V> current() {
+                if (currentNode == null) {
+                    throw new NoSuchElementException();
+                }
+
+                return currentNode.entry;
+            }
+        };
+    }
+
+    @Override
+    public Spliterator<Entry<K, V>> spliterator() {
+        return new EntrySpliterator(data, 0, data.length, size, true);
+    }
+
+    /**
+     * Spliterator over the bucket range [index, fence) of the table, split at the middle bucket.
+     * The size is only exact as long as the spliterator has not been split.
+     */
+    private class EntrySpliterator implements Spliterator<Entry<K, V>> {
+        private final Node<K, V>[] data;
+        private int index;
+        private final int fence;
+        private Node<K, V> current;
+        private int est;
+        private boolean exact;
+
+        EntrySpliterator(Node<K, V>[] data, int index, int fence, int est, boolean exact) {
+            this.data = data;
+            this.index = index;
+            this.fence = fence;
+            this.est = est;
+            this.exact = exact;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Entry<K, V>> action) {
+            while (current != null || index < fence) {
+                if (current == null) {
+                    current = data[index++];
+                } else {
+                    Entry<K, V> entry = current.entry;
+
+                    current = current.next;
+
+                    action.accept(entry);
+
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Entry<K, V>> action) {
+            for (Node<K, V> node = current; node != null; node = node.next) {
+                action.accept(node.entry);
+            }
+
+            current = null;
+
+            for (; index < fence; index++) {
+                for (Node<K, V> node = data[index]; node != null; node = node.next) {
+                    action.accept(node.entry);
+                }
+            }
+        }
+
+        @Override
+        public Spliterator<Entry<K, V>> trySplit() {
+            int lo = index;
+            int mid = (lo + fence) >>> 1;
+
+            if (lo >= mid || current != null) {
+                return null;
+            }
+
+            index = mid;
+            est >>>= 1;
+            exact = false;
+
+            return new EntrySpliterator(data, lo, mid, est, false);
+        }
+
+        @Override
+        public long estimateSize() {
+            return est;
+        }
+
+        @Override
+        public int characteristics() {
+            return DISTINCT | NONNULL | (exact ? SIZED : 0);
+        }
+    }
+
     static class Node<K, V> {
         final Entry<K, V> entry;
         Node<K, V> next;
@@ -0,0 +1,29 @@
+package dictionary;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * Order-preserving prefixes of string keys.
+ * <p>
+ * The first four UTF-16 chars of a string, padded with 0, are packed into a long with the first char in the highest bits.
+ * If the prefixes of two strings differ, comparing them unsigned yields the same order as String.compareTo;
+ * only if they are equal the strings themselves have to be compared.
+ */
+final class KeyPrefix {
+
+    static final ToLongFunction<String> STRING = KeyPrefix::of;
+
+    private KeyPrefix() {
+    }
+
+    static long of(String key) {
+        long prefix = 0;
+        int n = Math.min(4, key.length());
+
+        for (int i = 0; i < n; i++) {
+            prefix |= (long) key.charAt(i) << (48 - 16 * i);
+        }
+
+        return prefix;
+    }
+}
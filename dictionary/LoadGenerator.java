@@ -0,0 +1,144 @@
+package dictionary;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Load generator for the TranslationServer.
+ * <p>
+ * Opens several connections, each sending pipelined batches of s and i commands,
+ * and reports the throughput and the latency percentiles of the single commands.
+ */
+public class LoadGenerator {
+
+    private static final String FILE_NAME = "dtengl.txt";
+
+    /**
+     * @param args port, connections, requests per connection and pipeline depth (all optional).
+     */
+    public static void main(String[] args) throws Exception {
+        int port = (args.length > 0) ? Integer.parseInt(args[0]) : TranslationServer.DEFAULT_PORT;
+        int connections = (args.length > 1) ? Integer.parseInt(args[1]) : 16;
+        int requests = (args.length > 2) ? Integer.parseInt(args[2]) : 10000;
+        int depth = (args.length > 3) ? Integer.parseInt(args[3]) : 32;
+
+        String[][] translations;
+
+        try (Stream<String> lines = Files.lines(Paths.get(FILE_NAME))) {
+            translations = lines.map(translation -> translation.split("\\s"))
+                    .filter(translation -> translation.length == 2)
+                    .toArray(String[][]::new);
+        }
+
+        // Fills the shared dictionary of the server.
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            BufferedWriter out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+
+            out.write("r\n");
+            out.flush();
+
+            System.out.println(in.readLine());
+        }
+
+        List<Future<long[]>> futures = new ArrayList<>();
+
+        long start = System.nanoTime();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < connections; c++) {
+                long seed = c;
+
+                futures.add(executor.submit(() -> run(port, requests, depth, translations, seed)));
+            }
+        }
+
+        long end = System.nanoTime();
+
+        long[] latencies = new long[connections * requests];
+        int k = 0;
+
+        for (Future<long[]> future : futures) {
+            for (long latency : future.get()) {
+                latencies[k++] = latency;
+            }
+        }
+
+        Arrays.sort(latencies);
+
+        System.out.printf("Connections: %d, pipeline depth: %d, commands: %d%n", connections, depth, latencies.length);
+        System.out.printf("Throughput: %.0f commands/s%n", latencies.length / ((end - start) / 1e9));
+        System.out.printf("Latency p50: %.1f us, p99: %.1f us, max: %.1f us%n",
+                percentile(latencies, 0.50) / 1e3, percentile(latencies, 0.99) / 1e3, latencies[latencies.length - 1] / 1e3);
+    }
+
+    /**
+     * Sends requests commands in batches of depth commands and returns the latency of every command in ns,
+     * measured from sending its batch until its response has been read.
+     */
+    private static long[] run(int port, int requests, int depth, String[][] translations, long seed) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+
+        long[] latencies = new long[requests];
+
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            socket.setTcpNoDelay(true);
+
+            BufferedWriter out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+
+            for (int sent = 0; sent < requests; ) {
+                int batch = Math.min(depth, requests - sent);
+
+                for (int i = 0; i < batch; i++) {
+                    String[] translation = translations[random.nextInt(translations.length)];
+
+                    if (random.nextInt(20) == 0) {
+                        out.write("i " + translation[0] + " " + translation[1] + "\n");
+                    } else {
+                        out.write("s " + translation[0] + "\n");
+                    }
+                }
+
+                long batchStart = System.nanoTime();
+
+                out.flush();
+
+                for (int i = 0; i < batch; i++) {
+                    if (in.readLine() == null) {
+                        throw new IOException("Connection closed by server");
+                    }
+
+                    latencies[sent + i] = System.nanoTime() - batchStart;
+                }
+
+                sent += batch;
+            }
+
+            out.write("exit\n");
+            out.flush();
+        }
+
+        return latencies;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+}
@@ -0,0 +1,161 @@
+package dictionary;
+
+import java.lang.management.ManagementFactory;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+
+/**
+ * Estimated heap usage of a dictionary, split into structure, spare capacity and payload.
+ * <p>
+ * The structure comprises the objects and arrays needed for the current entries: headers, references, counters
+ * and entry or node objects. The spare capacity comprises unused array slots, empty buckets and removed entries
+ * that are still kept, i.e. memory that could be released without losing an entry.
+ * The payload comprises the keys and values themselves; only Strings and boxed primitives are counted,
+ * every object only once, even if it is shared by several entries.
+ * <p>
+ * The estimates follow the object layout of 64-bit HotSpot with compressed class pointers:
+ * 12 byte object headers, 16 byte array headers, references of 4 bytes if compressed oops are used
+ * and 8 bytes otherwise, and all objects aligned to 8 bytes.
+ * Memory allocated by the backing Comparator or by shared JDK objects is not included.
+ */
+public final class MemoryFootprint {
+
+    static final int OBJECT_HEADER = 12;
+    static final int ARRAY_HEADER = 16;
+    static final int REFERENCE = compressedOops() ? 4 : 8;
+
+    private static final int ALIGNMENT = 8;
+
+    private final long structure;
+    private final long spare;
+    private final long payload;
+
+    MemoryFootprint(long structure, long spare, long payload) {
+        this.structure = structure;
+        this.spare = spare;
+        this.payload = payload;
+    }
+
+    private static boolean compressedOops() {
+        try {
+            HotSpotDiagnosticMXBean bean = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+
+            return bean == null || Boolean.parseBoolean(bean.getVMOption("UseCompressedOops").getValue());
+        } catch (RuntimeException exception) {
+            // Not a HotSpot VM; compressed oops are the default for heaps below 32 GB.
+            return true;
+        }
+    }
+
+    static long align(long bytes) {
+        return (bytes + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    /**
+     * Size of an object with fields of fieldBytes bytes in total.
+     */
+    static long object(long fieldBytes) {
+        return align(OBJECT_HEADER + fieldBytes);
+    }
+
+    /**
+     * Size of an array of length elements with elementBytes bytes each.
+     */
+    static long array(long length, int elementBytes) {
+        return align(ARRAY_HEADER + length * elementBytes);
+    }
+
+    /**
+     * Size of Dictionary.Entry objects.
+     */
+    static long entry() {
+        return object(2L * REFERENCE);
+    }
+
+    /**
+     * Estimates the payload of dictionary by visiting all keys and values.
+     *
+     * @param dictionary dictionary whose keys and values are counted.
+     * @return estimated payload in bytes.
+     */
+    static long payload(Dictionary<?, ?> dictionary) {
+        Map<Object, Boolean> visited = new IdentityHashMap<>();
+        long bytes = 0;
+
+        Dictionary.Cursor<?, ?> cursor = dictionary.cursor();
+
+        while (cursor.advance()) {
+            bytes += sizeOf(cursor.key(), visited) + sizeOf(cursor.value(), visited);
+        }
+
+        return bytes;
+    }
+
+    private static long sizeOf(Object o, Map<Object, Boolean> visited) {
+        if (o == null || visited.put(o, Boolean.TRUE) != null) {
+            return 0;
+        }
+
+        if (o instanceof String s) {
+            // hash, coder, hashIsZero and value; Latin-1 strings store one byte per char.
+            boolean latin1 = s.chars().allMatch(c -> c < 0x100);
+
+            return object(4 + 1 + 1 + REFERENCE) + array(s.length(), latin1 ? 1 : 2);
+        }
+
+        if (o instanceof Long || o instanceof Double) {
+            return object(8);
+        }
+
+        if (o instanceof Number || o instanceof Character || o instanceof Boolean) {
+            return object(4);
+        }
+
+        return 0;
+    }
+
+    /**
+     * Returns the sum of this footprint and other, e.g. of a view and its backing dictionary.
+     *
+     * @param other footprint to be added.
+     * @return sum of both footprints.
+     */
+    public MemoryFootprint plus(MemoryFootprint other) {
+        return new MemoryFootprint(structure + other.structure, spare + other.spare, payload + other.payload);
+    }
+
+    /**
+     * @return bytes used by the structure of the current entries.
+     */
+    public long getStructure() {
+        return structure;
+    }
+
+    /**
+     * @return bytes used by unused capacity and removed entries still kept.
+     */
+    public long getSpare() {
+        return spare;
+    }
+
+    /**
+     * @return bytes used by the keys and values, or 0 if they were not counted.
+     */
+    public long getPayload() {
+        return payload;
+    }
+
+    /**
+     * @return total estimated bytes.
+     */
+    public long getTotal() {
+        return structure + spare + payload;
+    }
+
+    @Override
+    public String toString() {
+        return "structure " + structure + ", spare " + spare + ", payload " + payload + " bytes";
+    }
+}
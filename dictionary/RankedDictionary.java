@@ -0,0 +1,39 @@
+package dictionary;
+
+import java.util.Iterator;
+
+/**
+ * Dictionary whose entries are sorted by key and can be accessed by their position in this order.
+ * Positions are counted from 0; the iterator returns the entries in ascending order of keys.
+ *
+ * @param <K> Key.
+ * @param <V> Value.
+ */
+public interface RankedDictionary<K, V> extends Dictionary<K, V> {
+    /**
+     * Returns the entry with the i-th smallest key.
+     *
+     * @param i position of the entry, counted from 0.
+     * @return entry at position i.
+     * @throws IndexOutOfBoundsException if i is negative or not less than size().
+     */
+    Entry<K, V> select(int i);
+
+    /**
+     * Returns the number of keys in this dictionary that are less than key.
+     * If key is contained, this is its position; otherwise it is the position at which key would be inserted.
+     *
+     * @param key key whose rank is to be returned; need not be contained in this dictionary.
+     * @return number of keys less than key.
+     */
+    int rank(K key);
+
+    /**
+     * Returns an iterator over the entries in ascending order of keys, starting with the entry at position index.
+     *
+     * @param index position of the first entry to be returned, counted from 0.
+     * @return an Iterator over the entries from position index on.
+     * @throws IndexOutOfBoundsException if index is negative or greater than size().
+     */
+    Iterator<Entry<K, V>> iteratorFrom(int index);
+}
@@ -1,11 +1,18 @@
 package dictionary;
 
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -13,12 +20,70 @@ public class RuntimeTest {
 
     private static final String FILE_NAME = "dtengl.txt";
 
+    private static final int SCANS = 100;
+
+    private static final int LOOKUPS = 1_000_000;
+
+    private static final double[] ZIPF_EXPONENTS = {0.0, 0.8, 1.0, 1.2, 1.5};
+
+    private static final int FILLS = 10;
+
+    private static final int WARMUPS = 5;
+
+    private static final int FILL_CAPACITY = 1 << 16;
+
+    private static final int MEASUREMENTS = 3;
+
+    // A set operation is a single call per round, so it takes more rounds until it is compiled.
+    private static final int SET_OPERATION_WARMUPS = 500;
+
+    /**
+     * @param args benchmark mode: runtime (default), alloc, frontcoded, cuckoo, purge, prefix, memory, setops
+     *             or zipf followed by optional Zipf exponents.
+     */
     public static void main(String[] args) throws IOException {
         int n = 16000;
-        Dictionary<String, String> dictionary = new BinaryTreeDictionary<>();
 
         Map<String, String> translations = getTranslations(n);
 
+        String mode = (args.length == 0) ? "runtime" : args[0];
+
+        switch (mode) {
+            case "runtime":
+                runtime(translations);
+                break;
+            case "alloc":
+                allocation(translations);
+                break;
+            case "frontcoded":
+                frontCoded(translations);
+                break;
+            case "cuckoo":
+                cuckoo(translations);
+                break;
+            case "purge":
+                purge(translations);
+                break;
+            case "prefix":
+                prefix(translations);
+                break;
+            case "memory":
+                memory(translations);
+                break;
+            case "setops":
+                setOperations(translations);
+                break;
+            case "zipf":
+                zipf(translations, Arrays.stream(args, 1, args.length).mapToDouble(Double::parseDouble).toArray());
+                break;
+            default:
+                System.out.println("Unknown mode: " + mode);
+        }
+    }
+
+    private static void runtime(Map<String, String> translations) {
+        Dictionary<String, String> dictionary = new BinaryTreeDictionary<>();
+
         double start = System.nanoTime();
 
         for (Map.Entry<String, String> entry : translations.entrySet()) {
@@ -48,6 +113,506 @@ public class RuntimeTest {
         System.out.printf("Finding unsuccessfully: %f%n", (end - start) / 1000);
     }
 
+    /**
+     * Compares the bytes allocated per scanned entry by full scans with the iterator and with the cursor.
+     */
+    private static void allocation(Map<String, String> translations) {
+        List<Dictionary<String, String>> dictionaries = List.of(
+                new SortedArrayDictionary<>(), new HashDictionary<>(), new BinaryTreeDictionary<>());
+
+        for (Dictionary<String, String> dictionary : dictionaries) {
+            for (Map.Entry<String, String> entry : translations.entrySet()) {
+                dictionary.insert(entry.getKey(), entry.getValue());
+            }
+
+            long checksum = 0;
+
+            // Warm up, so that neither the JIT compiler nor lazy class loading allocate during the measurement.
+            for (int i = 0; i < SCANS; i++) {
+                checksum += scanIterator(dictionary) + scanCursor(dictionary);
+            }
+
+            long before = allocatedBytes();
+
+            for (int i = 0; i < SCANS; i++) {
+                checksum += scanIterator(dictionary);
+            }
+
+            long iteratorBytes = allocatedBytes() - before;
+
+            before = allocatedBytes();
+
+            for (int i = 0; i < SCANS; i++) {
+                checksum += scanCursor(dictionary);
+            }
+
+            long cursorBytes = allocatedBytes() - before;
+
+            long entries = (long) SCANS * dictionary.size();
+
+            System.out.printf("%s: iterator %.2f bytes/entry, cursor %.2f bytes/entry (checksum %d)%n",
+                    dictionary.getClass().getSimpleName(),
+                    (double) iteratorBytes / entries, (double) cursorBytes / entries, checksum);
+        }
+    }
+
+    /**
+     * Compares heap usage and lookup time of a SortedArrayDictionary and a FrontCodedDictionary with the same entries.
+     * The heap usage is measured like in the memory mode, so that both dictionaries own their keys and values.
+     */
+    private static void frontCoded(Map<String, String> translations) {
+        Dictionary<String, String> sortedArray = fill(new SortedArrayDictionary<>(), translations);
+
+        memory("SortedArrayDictionary", () -> fill(new SortedArrayDictionary<>(), translations));
+        memory("FrontCodedDictionary", () -> new FrontCodedDictionary(sortedArray));
+
+        Dictionary<String, String> frontCoded = new FrontCodedDictionary(sortedArray);
+
+        String[] keys = translations.keySet().toArray(new String[0]);
+
+        for (Dictionary<String, String> dictionary : List.of(sortedArray, frontCoded)) {
+            long checksum = 0;
+
+            // Warm up
+            for (int i = 0; i < SCANS; i++) {
+                checksum += lookup(dictionary, keys);
+            }
+
+            long start = System.nanoTime();
+
+            for (int i = 0; i < SCANS; i++) {
+                checksum += lookup(dictionary, keys);
+            }
+
+            long end = System.nanoTime();
+
+            System.out.printf("%s: lookup %.1f ns (checksum %d)%n", dictionary.getClass().getSimpleName(),
+                    (double) (end - start) / ((long) SCANS * keys.length), checksum);
+        }
+    }
+
+    /**
+     * Compares the lookup time of splay tree, AVL tree and hash table for Zipf distributed lookups.
+     * The key of rank r is looked up with probability proportional to 1 / r^s;
+     * the ranks are assigned to the keys at random, so that hot keys are spread over the whole tree.
+     * An exponent of 0 yields uniformly distributed lookups.
+     */
+    private static void zipf(Map<String, String> translations, double[] exponents) {
+        if (exponents.length == 0) {
+            exponents = ZIPF_EXPONENTS;
+        }
+
+        List<String> keys = new ArrayList<>(translations.keySet());
+
+        Collections.shuffle(keys, new Random(42));
+
+        for (double s : exponents) {
+            String[] lookups = zipfLookups(keys, s, LOOKUPS, new Random(4711));
+
+            List<Dictionary<String, String>> dictionaries = List.of(
+                    new SplayTreeDictionary<>(), new BinaryTreeDictionary<>(), new HashDictionary<>());
+
+            StringBuilder line = new StringBuilder(String.format("s = %.1f:", s));
+
+            long checksum = 0;
+
+            for (Dictionary<String, String> dictionary : dictionaries) {
+                for (Map.Entry<String, String> entry : translations.entrySet()) {
+                    dictionary.insert(entry.getKey(), entry.getValue());
+                }
+
+                // Warm up, which also lets the splay tree adapt to the distribution.
+                checksum += lookup(dictionary, lookups);
+
+                long start = System.nanoTime();
+
+                checksum += lookup(dictionary, lookups);
+
+                long end = System.nanoTime();
+
+                line.append(String.format(" %s %.1f ns", dictionary.getClass().getSimpleName(),
+                        (double) (end - start) / lookups.length));
+            }
+
+            System.out.println(line + " (checksum " + checksum + ")");
+        }
+    }
+
+    /**
+     * Compares the time needed to remove every other key of a SortedArrayDictionary
+     * by single removes, by single lazy removes and by removeAll.
+     */
+    private static void purge(Map<String, String> translations) {
+        List<String> keys = new ArrayList<>(translations.keySet());
+        List<String> purged = new ArrayList<>();
+
+        for (int i = 0; i < keys.size(); i += 2) {
+            purged.add(keys.get(i));
+        }
+
+        String[] modes = {"remove", "lazy remove", "removeAll"};
+
+        for (int round = 0; round < WARMUPS + 1; round++) {
+            for (String mode : modes) {
+                SortedArrayDictionary<String, String> dictionary = new SortedArrayDictionary<>(null, mode.equals("lazy remove"));
+
+                for (Map.Entry<String, String> entry : translations.entrySet()) {
+                    dictionary.insert(entry.getKey(), entry.getValue());
+                }
+
+                long start = System.nanoTime();
+
+                if (mode.equals("removeAll")) {
+                    dictionary.removeAll(purged);
+                } else {
+                    for (String key : purged) {
+                        dictionary.remove(key);
+                    }
+                }
+
+                long end = System.nanoTime();
+
+                // The first rounds warm up.
+                if (round == WARMUPS) {
+                    System.out.printf("%s of %d keys: %.2f ms (size %d)%n", mode, purged.size(), (end - start) / 1e6, dictionary.size());
+                }
+            }
+        }
+    }
+
+    /**
+     * Compares the lookup time of SortedArrayDictionary and BinaryTreeDictionary with and without prefix cache
+     * for uniformly distributed lookups of contained keys.
+     */
+    private static void prefix(Map<String, String> translations) {
+        List<String> keys = new ArrayList<>(translations.keySet());
+        Random random = new Random(4711);
+        String[] lookups = new String[LOOKUPS];
+
+        for (int i = 0; i < lookups.length; i++) {
+            lookups[i] = keys.get(random.nextInt(keys.size()));
+        }
+
+        Map<String, Dictionary<String, String>> dictionaries = new LinkedHashMap<>();
+
+        dictionaries.put("SortedArrayDictionary", new SortedArrayDictionary<>());
+        dictionaries.put("SortedArrayDictionary with prefix cache", SortedArrayDictionary.withPrefixCache(false));
+        dictionaries.put("BinaryTreeDictionary", new BinaryTreeDictionary<>());
+        dictionaries.put("BinaryTreeDictionary with prefix cache", BinaryTreeDictionary.withPrefixCache());
+
+        long checksum = 0;
+
+        for (Map.Entry<String, Dictionary<String, String>> entry : dictionaries.entrySet()) {
+            Dictionary<String, String> dictionary = entry.getValue();
+
+            for (Map.Entry<String, String> translation : translations.entrySet()) {
+                dictionary.insert(translation.getKey(), translation.getValue());
+            }
+
+            for (int round = 0; round < WARMUPS; round++) {
+                checksum += lookup(dictionary, lookups);
+            }
+
+            long start = System.nanoTime();
+
+            checksum += lookup(dictionary, lookups);
+
+            long end = System.nanoTime();
+
+            System.out.printf("%s: %.1f ns per lookup%n", entry.getKey(), (double) (end - start) / lookups.length);
+        }
+
+        System.out.println("(checksum " + checksum + ")");
+    }
+
+    /**
+     * Compares the time needed to intersect a SortedArrayDictionary with all translations
+     * by a search for every key of the other dictionary and by intersection,
+     * for other dictionaries of every second, every 16th and every 256th key.
+     */
+    private static void setOperations(Map<String, String> translations) {
+        List<String> keys = new ArrayList<>(translations.keySet());
+        SortedArrayDictionary<String, String> all = fill(new SortedArrayDictionary<>(), translations);
+
+        for (int step : new int[]{2, 16, 256}) {
+            SortedArrayDictionary<String, String> other = new SortedArrayDictionary<>();
+
+            for (int i = 0; i < keys.size(); i += step) {
+                other.insert(keys.get(i), translations.get(keys.get(i)));
+            }
+
+            long searchTime = 0;
+            long intersectionTime = 0;
+            int searchSize = 0;
+            int intersectionSize = 0;
+
+            for (int round = 0; round < SET_OPERATION_WARMUPS + MEASUREMENTS; round++) {
+                long start = System.nanoTime();
+
+                SortedArrayDictionary<String, String> result = new SortedArrayDictionary<>();
+
+                for (Dictionary.Entry<String, String> entry : other) {
+                    String value = all.search(entry.getKey());
+
+                    if (value != null) {
+                        result.insert(entry.getKey(), value);
+                    }
+                }
+
+                long middle = System.nanoTime();
+
+                // A copy of all, which takes a single pass as well.
+                SortedArrayDictionary<String, String> merged = new SortedArrayDictionary<>();
+
+                merged.union(all);
+
+                long copied = System.nanoTime();
+
+                merged.intersection(other);
+
+                long end = System.nanoTime();
+
+                // The first rounds warm up.
+                if (round >= SET_OPERATION_WARMUPS) {
+                    searchTime += middle - start;
+                    intersectionTime += end - copied;
+                    searchSize = result.size();
+                    intersectionSize = merged.size();
+                }
+            }
+
+            System.out.printf("%d with %d keys: searches %.3f ms, intersection %.3f ms (size %d, %d)%n",
+                    all.size(), other.size(), searchTime / 1e6 / MEASUREMENTS, intersectionTime / 1e6 / MEASUREMENTS,
+                    searchSize, intersectionSize);
+        }
+    }
+
+    /**
+     * Compares the estimated memory footprint of every implementation with its measured size.
+     * The keys and values are copied, so that every dictionary owns its payload.
+     */
+    private static void memory(Map<String, String> translations) {
+        Dictionary<String, String> source = fill(new SortedArrayDictionary<>(), translations);
+
+        Map<String, Supplier<Dictionary<String, ?>>> dictionaries = new LinkedHashMap<>();
+
+        dictionaries.put("SortedArrayDictionary", () -> fill(new SortedArrayDictionary<>(), translations));
+        dictionaries.put("SortedArrayDictionary with prefix cache", () -> fill(SortedArrayDictionary.withPrefixCache(false), translations));
+        dictionaries.put("HashDictionary", () -> fill(new HashDictionary<>(), translations));
+        dictionaries.put("CuckooHashDictionary", () -> fill(new CuckooHashDictionary<>(), translations));
+        dictionaries.put("BinaryTreeDictionary", () -> fill(new BinaryTreeDictionary<>(), translations));
+        dictionaries.put("SplayTreeDictionary", () -> fill(new SplayTreeDictionary<>(), translations));
+        dictionaries.put("FrontCodedDictionary", () -> new FrontCodedDictionary(source));
+        dictionaries.put("Tui (fuzzy, bidirectional, sorted array)", () -> fill(
+                new FuzzyDictionary<>(new BidirectionalDictionary<>(SortedArrayDictionary.withPrefixCache(false))), translations));
+
+        for (Map.Entry<String, Supplier<Dictionary<String, ?>>> entry : dictionaries.entrySet()) {
+            memory(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Builds a dictionary MEASUREMENTS times and prints the estimated and the measured size of the smallest one.
+     * The measured size is the difference of the used heap with the dictionary and the used heap before building it
+     * or after it has become unreachable, whichever is less.
+     * The JVM sometimes keeps objects it has handled last reachable a little longer, or allocates memory once,
+     * which inflates single measurements.
+     */
+    private static void memory(String name, Supplier<Dictionary<String, ?>> supplier) {
+        long measured = Long.MAX_VALUE;
+        MemoryFootprint footprint = null;
+        int size = 0;
+
+        for (int i = 0; i < MEASUREMENTS; i++) {
+            long before = usedHeap();
+
+            Dictionary<String, ?> dictionary = supplier.get();
+
+            MemoryFootprint estimated = dictionary.footprint(true);
+            int n = dictionary.size();
+
+            long with = usedHeap();
+
+            dictionary = null;
+
+            long bytes = with - Math.min(before, usedHeap());
+
+            if (bytes < measured) {
+                measured = bytes;
+                footprint = estimated;
+                size = n;
+            }
+        }
+
+        System.out.printf("%s: measured %d bytes, estimated %d bytes (%+.1f%%): structure %d, spare %d, payload %d; "
+                        + "%.1f bytes/entry without payload%n",
+                name, measured, footprint.getTotal(), 100.0 * (footprint.getTotal() - measured) / measured,
+                footprint.getStructure(), footprint.getSpare(), footprint.getPayload(),
+                (double) (footprint.getStructure() + footprint.getSpare()) / size);
+    }
+
+    /**
+     * Inserts copies of all translations, which do not share their arrays with the original strings.
+     */
+    private static <D extends Dictionary<String, String>> D fill(D dictionary, Map<String, String> translations) {
+        for (Map.Entry<String, String> entry : translations.entrySet()) {
+            dictionary.insert(new String(entry.getKey().toCharArray()), new String(entry.getValue().toCharArray()));
+        }
+
+        return dictionary;
+    }
+
+    /**
+     * Measures the load factor at which a CuckooHashDictionary has to grow,
+     * and compares the latency distribution of single lookups with HashDictionary.
+     * 90% of the lookups are successful.
+     */
+    private static void cuckoo(Map<String, String> translations) {
+        Random random = new Random(4711);
+
+        double sum = 0;
+        double min = 1;
+
+        for (int i = 0; i < FILLS; i++) {
+            CuckooHashDictionary<Integer, Integer> dictionary = new CuckooHashDictionary<>(FILL_CAPACITY);
+
+            double loadFactor = 0;
+
+            // The load factor drops as soon as the table has grown.
+            while (dictionary.loadFactor() >= loadFactor) {
+                loadFactor = dictionary.loadFactor();
+
+                int key = random.nextInt();
+
+                dictionary.insert(key, key);
+            }
+
+            sum += loadFactor;
+            min = Math.min(min, loadFactor);
+        }
+
+        System.out.printf("CuckooHashDictionary: load factor before growing %.3f (min %.3f)%n", sum / FILLS, min);
+
+        List<String> keys = new ArrayList<>(translations.keySet());
+        String[] lookups = new String[LOOKUPS];
+
+        for (int i = 0; i < LOOKUPS; i++) {
+            String key = keys.get(random.nextInt(keys.size()));
+
+            lookups[i] = (random.nextInt(10) == 0) ? key + "x" : key;
+        }
+
+        List<Dictionary<String, String>> dictionaries = List.of(new HashDictionary<>(), new CuckooHashDictionary<>());
+
+        for (Dictionary<String, String> dictionary : dictionaries) {
+            for (Map.Entry<String, String> entry : translations.entrySet()) {
+                dictionary.insert(entry.getKey(), entry.getValue());
+            }
+
+            long[] latencies = new long[LOOKUPS];
+            long checksum = 0;
+
+            // The first round warms up.
+            for (int round = 0; round < 2; round++) {
+                for (int i = 0; i < LOOKUPS; i++) {
+                    long start = System.nanoTime();
+
+                    String value = dictionary.search(lookups[i]);
+
+                    latencies[i] = System.nanoTime() - start;
+
+                    if (value != null) {
+                        checksum += value.length();
+                    }
+                }
+            }
+
+            Arrays.sort(latencies);
+
+            System.out.printf("%s: p50 %d ns, p99 %d ns, p99.9 %d ns, max %d ns (checksum %d)%n",
+                    dictionary.getClass().getSimpleName(), percentile(latencies, 0.5), percentile(latencies, 0.99),
+                    percentile(latencies, 0.999), latencies[LOOKUPS - 1], checksum);
+        }
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+
+    /**
+     * Draws n keys, the key keys.get(r - 1) with probability proportional to 1 / r^s,
+     * by binary search in the cumulative distribution.
+     */
+    private static String[] zipfLookups(List<String> keys, double s, int n, Random random) {
+        double[] cumulative = new double[keys.size()];
+        double sum = 0;
+
+        for (int r = 1; r <= cumulative.length; r++) {
+            sum += 1 / Math.pow(r, s);
+            cumulative[r - 1] = sum;
+        }
+
+        String[] lookups = new String[n];
+
+        for (int i = 0; i < n; i++) {
+            int r = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+
+            if (r < 0) {
+                r = -r - 1;
+            }
+
+            lookups[i] = keys.get(Math.min(r, cumulative.length - 1));
+        }
+
+        return lookups;
+    }
+
+    private static long lookup(Dictionary<String, String> dictionary, String[] keys) {
+        long checksum = 0;
+
+        for (String key : keys) {
+            checksum += dictionary.search(key).length();
+        }
+
+        return checksum;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long scanIterator(Dictionary<String, String> dictionary) {
+        long checksum = 0;
+
+        for (Dictionary.Entry<String, String> entry : dictionary) {
+            checksum += entry.getKey().length() + entry.getValue().length();
+        }
+
+        return checksum;
+    }
+
+    private static long scanCursor(Dictionary<String, String> dictionary) {
+        long checksum = 0;
+
+        Dictionary.Cursor<String, String> cursor = dictionary.cursor();
+
+        while (cursor.advance()) {
+            checksum += cursor.key().length() + cursor.value().length();
+        }
+
+        return checksum;
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
     private static Map<String, String> getTranslations(int n) throws IOException {
         try (Stream<String> translations = Files.lines(Paths.get(FILE_NAME))) {
             return translations.limit(n)
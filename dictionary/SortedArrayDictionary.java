@@ -1,16 +1,56 @@
 package dictionary;
 
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
 
-public class SortedArrayDictionary<K, V> implements Dictionary<K, V> {
+/**
+ * Implementation of the Dictionary interface as sorted array.
+ * <p>
+ * With lazy removal, remove replaces the entry by a tombstone that keeps its key,
+ * so that binary search still works, and that is skipped by iterators and cursors.
+ * Inserting a key next to or onto a tombstone reuses its slot.
+ * The array is compacted in a single pass as soon as more than MAX_TOMBSTONE_RATIO of its slots are tombstones,
+ * and before entries are accessed by position.
+ * removeAll compacts once after removing all keys in both modes.
+ * <p>
+ * Two dictionaries can be combined by union, intersection and difference in a single merge pass,
+ * which gallops through the larger array if the sizes differ a lot.
+ * <p>
+ * A dictionary created by withPrefixCache keeps an order-preserving long prefix of every String key
+ * in an array parallel to the entries, so that most steps of a binary search compare two longs
+ * and only ties are decided by the comparator.
+ *
+ * @param <K> Key.
+ * @param <V> Value.
+ */
+public class SortedArrayDictionary<K, V> implements RankedDictionary<K, V> {
 
     private static final int DEF_CAPACITY = 16;
 
+    private static final double MAX_TOMBSTONE_RATIO = 0.25;
+
+    // Set operations gallop through the larger array if it is more than GALLOP_RATIO times larger.
+    private static final int GALLOP_RATIO = 8;
+
     private final Comparator<? super K> cmp;
+    private final boolean lazyRemove;
+
+    // Prefixes of the keys, parallel to data; null if there is no prefix cache.
+    private final ToLongFunction<? super K> prefix;
+    private long[] prefixes;
 
+    // Number of entries, and number of used slots including tombstones.
     private int size;
+    private int used;
+    private int tombstones;
     private Entry<K, V>[] data;
 
     public SortedArrayDictionary() {
@@ -18,106 +58,798 @@ public class SortedArrayDictionary<K, V> implements Dictionary<K, V> {
     }
 
     public SortedArrayDictionary(Comparator<? super K> cmp) {
+        this(cmp, false);
+    }
+
+    /**
+     * @param cmp        ordering of the keys; null for their natural ordering.
+     * @param lazyRemove if true, remove leaves tombstones that are compacted later.
+     */
+    public SortedArrayDictionary(Comparator<? super K> cmp, boolean lazyRemove) {
+        this(cmp, lazyRemove, null);
+    }
+
+    private SortedArrayDictionary(Comparator<? super K> cmp, boolean lazyRemove, ToLongFunction<? super K> prefix) {
         if (cmp == null) {
             this.cmp = (x, y) -> ((Comparable<? super K>) x).compareTo(y);
         } else {
             this.cmp = cmp;
         }
 
+        this.lazyRemove = lazyRemove;
+        this.prefix = prefix;
+
         size = 0;
+        used = 0;
+        tombstones = 0;
         data = new Entry[DEF_CAPACITY];
+
+        if (prefix != null) {
+            prefixes = new long[DEF_CAPACITY];
+        }
+    }
+
+    /**
+     * Creates a dictionary with String keys in their natural ordering that caches the first four chars of every key.
+     *
+     * @param lazyRemove if true, remove leaves tombstones that are compacted later.
+     * @param <V>        Value.
+     * @return empty dictionary with prefix cache.
+     */
+    public static <V> SortedArrayDictionary<String, V> withPrefixCache(boolean lazyRemove) {
+        return new SortedArrayDictionary<>(null, lazyRemove, KeyPrefix.STRING);
+    }
+
+    private long prefixOf(K key) {
+        return (prefix == null) ? 0 : prefix.applyAsLong(key);
+    }
+
+    /**
+     * Compares key, whose prefix is keyPrefix, with the key in slot i.
+     */
+    private int compare(K key, long keyPrefix, int i) {
+        if (prefixes != null) {
+            int c = Long.compareUnsigned(keyPrefix, prefixes[i]);
+
+            if (c != 0) {
+                return c;
+            }
+        }
+
+        return cmp.compare(key, data[i].getKey());
+    }
+
+    /**
+     * Stores entry in slot i.
+     */
+    private void set(int i, Entry<K, V> entry) {
+        data[i] = entry;
+
+        if (prefixes != null) {
+            prefixes[i] = prefix.applyAsLong(entry.getKey());
+        }
+    }
+
+    /**
+     * Shifts the slots [i, used) one slot to the right, growing the array if it is full.
+     */
+    private void openSlot(int i) {
+        if (data.length == used) {
+            data = Arrays.copyOf(data, 2 * used);
+
+            if (prefixes != null) {
+                prefixes = Arrays.copyOf(prefixes, 2 * used);
+            }
+        }
+
+        System.arraycopy(data, i, data, i + 1, used - i);
+
+        if (prefixes != null) {
+            System.arraycopy(prefixes, i, prefixes, i + 1, used - i);
+        }
+    }
+
+    private static boolean isTombstone(Entry<?, ?> entry) {
+        return entry instanceof Tombstone;
     }
 
+    /**
+     * Returns the index of the slot with key, which may be a tombstone, or -(insertion point) - 1 if there is none.
+     */
     private int searchKey(K key) {
+        long keyPrefix = prefixOf(key);
         int li = 0;
-        int re = size - 1;
+        int re = used - 1;
         while (re >= li) {
-            int m = (li + re) / 2;
-            if (cmp.compare(key, data[m].getKey()) < 0) {
+            int m = (li + re) >>> 1;
+            int c = compare(key, keyPrefix, m);
+            if (c < 0) {
                 re = m - 1;
-            } else if (cmp.compare(key, data[m].getKey()) > 0) {
+            } else if (c > 0) {
                 li = m + 1;
             } else {
                 return m;
             }
+        }
+        return -li - 1;
+    }
+
+    /**
+     * Gallops from index from towards the end of the array and binary searches the bracketed range.
+     * Returns the index of key, or -(insertion point) - 1 if key is not contained.
+     */
+    private int gallop(K key, int from) {
+        long keyPrefix = prefixOf(key);
+        int li = from;
+        int bound = 1;
 
+        while (from + bound - 1 < used && compare(key, keyPrefix, from + bound - 1) > 0) {
+            li = from + bound;
+            bound *= 2;
         }
-        return -1;
+
+        int re = Math.min(from + bound - 1, used - 1);
+
+        while (re >= li) {
+            int m = (li + re) >>> 1;
+            int c = compare(key, keyPrefix, m);
+
+            if (c < 0) {
+                re = m - 1;
+            } else if (c > 0) {
+                li = m + 1;
+            } else {
+                return m;
+            }
+        }
+
+        return -li - 1;
     }
 
     @Override
     public V insert(K key, V value) {
+        if (tombstones > 0) {
+            return insertReusing(key, value);
+        }
+
         int i = searchKey(key);
 
-        if (i != -1) {
+        if (i >= 0) {
             V r = data[i].getValue();
             data[i].setValue(value);
             return r;
         }
 
-        if (data.length == size) {
-            data = Arrays.copyOf(data, 2 * size);
+        i = -i - 1;
+        openSlot(i);
+        set(i, new Entry<K, V>(key, value));
+        size++;
+        used++;
+        return null;
+    }
+
+    /**
+     * Inserts key into a tombstone with the same key or next to the insertion point if there is one,
+     * which keeps the array sorted without shifting.
+     */
+    private V insertReusing(K key, V value) {
+        int i = gallop(key, 0);
+
+        if (i >= 0 && !isTombstone(data[i])) {
+            return data[i].setValue(value);
         }
-        int j = size - 1;
-        while (j >= 0 && cmp.compare(key, data[j].getKey()) < 0) {
-            data[j + 1] = data[j];
-            j--;
+
+        if (i < 0) {
+            i = -i - 1;
+
+            if (i < used && isTombstone(data[i])) {
+                // key is less than the key of the tombstone and greater than the key before it.
+            } else if (i > 0 && isTombstone(data[i - 1])) {
+                i = i - 1;
+            } else {
+                openSlot(i);
+                set(i, new Entry<>(key, value));
+                size++;
+                used++;
+
+                return null;
+            }
         }
-        data[j + 1] = new Entry<K, V>(key, value);
+
+        set(i, new Entry<>(key, value));
         size++;
+        tombstones--;
+
         return null;
     }
 
     @Override
     public V search(K key) {
-        int li = 0;
-        int re = size - 1;
-        while (re >= li) {
-            int m = (li + re) / 2;
-            if (key.equals(data[m].getKey())) {
-                return data[m].getValue();
-            } else if (cmp.compare(key, data[m].getKey()) < 0) {
-                re = m - 1;
+        int i = searchKey(key);
+
+        return (i < 0 || isTombstone(data[i])) ? null : data[i].getValue();
+    }
+
+    @Override
+    public void searchAll(K[] keys, V[] out) {
+        if (out.length < keys.length) {
+            throw new IllegalArgumentException("out is shorter than keys");
+        }
+
+        Integer[] order = new Integer[keys.length];
+
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+
+        Arrays.sort(order, (i, j) -> cmp.compare(keys[i], keys[j]));
+
+        int from = 0;
+
+        for (int i : order) {
+            int j = gallop(keys[i], from);
+
+            if (j >= 0) {
+                out[i] = isTombstone(data[j]) ? null : data[j].getValue();
+                from = j;
             } else {
-                li = m + 1;
+                out[i] = null;
+                from = -j - 1;
             }
-
         }
-        return null;
     }
 
     @Override
     public V remove(K key) {
         int i = searchKey(key);
-        if (i == -1) {
+        if (i < 0 || isTombstone(data[i])) {
             return null;
         }
         V r = data[i].getValue();
-        for (int j = i; j < size - 1; j++)
+
+        if (lazyRemove) {
+            data[i] = new Tombstone<>(key);
+            size--;
+            tombstones++;
+
+            if (tombstones > MAX_TOMBSTONE_RATIO * used) {
+                compact();
+            }
+
+            return r;
+        }
+
+        for (int j = i; j < used - 1; j++)
             data[j] = data[j + 1];
-        data[--size] = null;
+        if (prefixes != null) {
+            System.arraycopy(prefixes, i + 1, prefixes, i, used - 1 - i);
+        }
+        data[--used] = null;
+        size--;
         return r;
     }
 
+    /**
+     * Removes all entries whose keys are contained in keys.
+     * The keys are located by galloping through the array in ascending order
+     * and replaced by tombstones, which are compacted in a single pass afterwards.
+     *
+     * @param keys keys to be removed.
+     * @return number of removed entries.
+     */
+    public int removeAll(Collection<? extends K> keys) {
+        K[] sorted = (K[]) keys.toArray();
+
+        Arrays.sort(sorted, cmp);
+
+        int removed = 0;
+        int from = 0;
+
+        for (K key : sorted) {
+            int i = gallop(key, from);
+
+            if (i < 0) {
+                from = -i - 1;
+                continue;
+            }
+
+            if (!isTombstone(data[i])) {
+                data[i] = new Tombstone<>(key);
+                tombstones++;
+                removed++;
+            }
+
+            from = i;
+        }
+
+        size -= removed;
+
+        if (tombstones > 0) {
+            compact();
+        }
+
+        return removed;
+    }
+
+    /**
+     * Moves all entries to the front of the array in a single pass, dropping the tombstones.
+     */
+    private void compact() {
+        int w = 0;
+
+        for (int r = 0; r < used; r++) {
+            if (!isTombstone(data[r])) {
+                if (prefixes != null) {
+                    prefixes[w] = prefixes[r];
+                }
+
+                data[w++] = data[r];
+            }
+        }
+
+        Arrays.fill(data, w, used, null);
+
+        used = w;
+        tombstones = 0;
+    }
+
+    /**
+     * Adds all entries of other to this dictionary.
+     * For keys contained in both dictionaries the value of other is kept.
+     * other is not changed and must use the same ordering as this dictionary.
+     *
+     * @param other dictionary whose entries are copied into this dictionary.
+     */
+    public void union(SortedArrayDictionary<K, V> other) {
+        union(other, (v, w) -> w);
+    }
+
+    /**
+     * Adds all entries of other to this dictionary.
+     * For keys contained in both dictionaries the value is resolver.apply(value in this, value in other).
+     * other is not changed and must use the same ordering as this dictionary.
+     *
+     * @param other    dictionary whose entries are copied into this dictionary.
+     * @param resolver resolves the value of keys contained in both dictionaries.
+     */
+    public void union(SortedArrayDictionary<K, V> other, BinaryOperator<V> resolver) {
+        setOperation(SetOperation.UNION, other, resolver);
+    }
+
+    /**
+     * Removes all entries from this dictionary whose keys are not contained in other.
+     * The values of this dictionary are kept.
+     * other is not changed and must use the same ordering as this dictionary.
+     *
+     * @param other dictionary with the keys to be retained.
+     */
+    public void intersection(SortedArrayDictionary<K, V> other) {
+        setOperation(SetOperation.INTERSECTION, other, null);
+    }
+
+    /**
+     * Removes all entries from this dictionary whose keys are contained in other.
+     * other is not changed and must use the same ordering as this dictionary.
+     *
+     * @param other dictionary with the keys to be removed.
+     */
+    public void difference(SortedArrayDictionary<K, V> other) {
+        setOperation(SetOperation.DIFFERENCE, other, null);
+    }
+
+    /**
+     * Merges both arrays into a new array in a single pass, which takes O(n + m) steps.
+     * If one array is more than GALLOP_RATIO times larger, every key of the smaller one is located
+     * by galloping through the larger one, so that only O(m log(n / m)) keys are compared
+     * and the runs of the larger array in between are copied as a whole.
+     */
+    private void setOperation(SetOperation op, SortedArrayDictionary<K, V> other, BinaryOperator<V> resolver) {
+        if (other == this) {
+            throw new IllegalArgumentException("other must be a different dictionary");
+        }
+
+        if (tombstones > 0) {
+            compact();
+        }
+
+        if (other.tombstones > 0) {
+            other.compact();
+        }
+
+        int capacity = switch (op) {
+            case UNION -> used + other.used;
+            case INTERSECTION -> Math.min(used, other.used);
+            case DIFFERENCE -> used;
+        };
+
+        Merge merge = new Merge(other, Math.max(capacity, DEF_CAPACITY));
+
+        if (used > GALLOP_RATIO * other.used) {
+            // Locate the keys of other in this array.
+            int i = 0;
+
+            for (int j = 0; j < other.used; j++) {
+                int k = gallop(other.data[j].getKey(), i);
+                int run = (k >= 0) ? k : -k - 1;
+
+                if (op != SetOperation.INTERSECTION) {
+                    merge.keep(i, run);
+                }
+
+                i = run;
+
+                if (k >= 0) {
+                    merge.both(op, i, j, resolver);
+                    i++;
+                } else if (op == SetOperation.UNION) {
+                    merge.take(j, j + 1);
+                }
+            }
+
+            if (op != SetOperation.INTERSECTION) {
+                merge.keep(i, used);
+            }
+        } else if (other.used > GALLOP_RATIO * used) {
+            // Locate the keys of this array in other.
+            int j = 0;
+
+            for (int i = 0; i < used; i++) {
+                int k = other.gallop(data[i].getKey(), j);
+                int run = (k >= 0) ? k : -k - 1;
+
+                if (op == SetOperation.UNION) {
+                    merge.take(j, run);
+                }
+
+                j = run;
+
+                if (k >= 0) {
+                    merge.both(op, i, j, resolver);
+                    j++;
+                } else if (op != SetOperation.INTERSECTION) {
+                    merge.keep(i, i + 1);
+                }
+            }
+
+            if (op == SetOperation.UNION) {
+                merge.take(j, other.used);
+            }
+        } else {
+            int i = 0;
+            int j = 0;
+
+            while (i < used && j < other.used) {
+                int c = merge.compare(i, j);
+
+                if (c < 0) {
+                    if (op != SetOperation.INTERSECTION) {
+                        merge.keep(i, i + 1);
+                    }
+
+                    i++;
+                } else if (c > 0) {
+                    if (op == SetOperation.UNION) {
+                        merge.take(j, j + 1);
+                    }
+
+                    j++;
+                } else {
+                    merge.both(op, i, j, resolver);
+                    i++;
+                    j++;
+                }
+            }
+
+            if (op != SetOperation.INTERSECTION) {
+                merge.keep(i, used);
+            }
+
+            if (op == SetOperation.UNION) {
+                merge.take(j, other.used);
+            }
+        }
+
+        data = merge.data;
+        prefixes = merge.prefixes;
+        used = merge.n;
+        size = merge.n;
+    }
+
     @Override
     public int size() {
         return size;
     }
 
+    /**
+     * Counts the unused slots at the end of the array and the tombstones as spare capacity.
+     */
+    @Override
+    public MemoryFootprint footprint(boolean withPayload) {
+        int prefixBytes = (prefixes != null) ? Long.BYTES : 0;
+
+        long total = MemoryFootprint.object(4L * MemoryFootprint.REFERENCE + 3 * Integer.BYTES + 1)
+                + MemoryFootprint.array(data.length, MemoryFootprint.REFERENCE)
+                + ((prefixes != null) ? MemoryFootprint.array(prefixes.length, Long.BYTES) : 0)
+                + (long) used * MemoryFootprint.entry();
+
+        long spare = (long) (data.length - size) * (MemoryFootprint.REFERENCE + prefixBytes)
+                + (long) tombstones * MemoryFootprint.entry();
+
+        return new MemoryFootprint(total - spare, spare, withPayload ? MemoryFootprint.payload(this) : 0);
+    }
+
+    @Override
+    public Entry<K, V> select(int i) {
+        if (tombstones > 0) {
+            compact();
+        }
+
+        return data[Objects.checkIndex(i, size)];
+    }
+
+    @Override
+    public int rank(K key) {
+        if (tombstones > 0) {
+            compact();
+        }
+
+        int i = gallop(key, 0);
+
+        return (i >= 0) ? i : -i - 1;
+    }
+
     @Override
     public Iterator<Entry<K, V>> iterator() {
+        return iteratorFrom(0);
+    }
+
+    /**
+     * Returns an iterator skipping the tombstones.
+     * The array is compacted first if index is not 0, so that index is the position in the array.
+     */
+    @Override
+    public Iterator<Entry<K, V>> iteratorFrom(int index) {
+        Objects.checkIndex(index, size + 1);
+
+        if (index > 0 && tombstones > 0) {
+            compact();
+        }
+
         return new Iterator<>() {
-            int i = 0;
+            int i = skipTombstones(index);
 
             @Override
             public boolean hasNext() {
-                return i < size;
+                return i < used;
             }
 
             @Override
             public Entry<K, V> next() {
-                return data[i++];
+                if (i >= used) {
+                    throw new NoSuchElementException();
+                }
+
+                Entry<K, V> entry = data[i];
+
+                i = skipTombstones(i + 1);
+
+                return entry;
             }
         };
     }
+
+    private int skipTombstones(int i) {
+        while (i < used && isTombstone(data[i])) {
+            i++;
+        }
+
+        return i;
+    }
+
+    @Override
+    public Cursor<K, V> cursor() {
+        return new Cursor<>() {
+            int i = -1;
+
+            @Override
+            public boolean advance() {
+                if (i < used) {
+                    i = skipTombstones(i + 1);
+                }
+
+                return i < used;
+            }
+
+            @Override
+            public K key() {
+                return current().getKey();
+            }
+
+            @Override
+            public V value() {
+                return current().getValue();
+            }
+
+            @Override
+            public V setValue(V value) {
+                return current().setValue(value);
+            }
+
+            private Entry<K, V> current() {
+                if (i < 0 || i >= used) {
+                    throw new NoSuchElementException();
+                }
+
+                return data[i];
+            }
+        };
+    }
+
+    /**
+     * Returns a spliterator over the array, which is compacted first, so that all sizes are exact.
+     */
+    @Override
+    public Spliterator<Entry<K, V>> spliterator() {
+        if (tombstones > 0) {
+            compact();
+        }
+
+        return new EntrySpliterator(data, 0, size);
+    }
+
+    /**
+     * Spliterator over the index range [index, fence) of the array, split at the middle index.
+     */
+    private class EntrySpliterator implements Spliterator<Entry<K, V>> {
+        private final Entry<K, V>[] data;
+        private int index;
+        private final int fence;
+
+        EntrySpliterator(Entry<K, V>[] data, int index, int fence) {
+            this.data = data;
+            this.index = index;
+            this.fence = fence;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Entry<K, V>> action) {
+            if (index >= fence) {
+                return false;
+            }
+
+            action.accept(data[index++]);
+
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Entry<K, V>> action) {
+            for (; index < fence; index++) {
+                action.accept(data[index]);
+            }
+        }
+
+        @Override
+        public Spliterator<Entry<K, V>> trySplit() {
+            int lo = index;
+            int mid = (lo + fence) >>> 1;
+
+            if (lo >= mid) {
+                return null;
+            }
+
+            index = mid;
+
+            return new EntrySpliterator(data, lo, mid);
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SORTED | DISTINCT | NONNULL | SIZED | SUBSIZED;
+        }
+
+        @Override
+        public Comparator<? super Entry<K, V>> getComparator() {
+            return (x, y) -> cmp.compare(x.getKey(), y.getKey());
+        }
+    }
+
+    /**
+     * Kind of merge performed by setOperation.
+     */
+    private enum SetOperation {
+        UNION, INTERSECTION, DIFFERENCE
+    }
+
+    /**
+     * Result array of a set operation, filled from front to back.
+     */
+    private class Merge {
+        final SortedArrayDictionary<K, V> other;
+        final Entry<K, V>[] data;
+        final long[] prefixes;
+        int n;
+
+        Merge(SortedArrayDictionary<K, V> other, int capacity) {
+            this.other = other;
+            this.data = new Entry[capacity];
+            this.prefixes = (prefix != null) ? new long[capacity] : null;
+        }
+
+        /**
+         * Compares the key in slot i of this dictionary with the key in slot j of other.
+         */
+        int compare(int i, int j) {
+            if (prefixes != null && other.prefix == prefix) {
+                int c = Long.compareUnsigned(SortedArrayDictionary.this.prefixes[i], other.prefixes[j]);
+
+                if (c != 0) {
+                    return c;
+                }
+            }
+
+            return cmp.compare(SortedArrayDictionary.this.data[i].getKey(), other.data[j].getKey());
+        }
+
+        /**
+         * Appends the entries in the slots [from, to) of this dictionary.
+         */
+        void keep(int from, int to) {
+            System.arraycopy(SortedArrayDictionary.this.data, from, data, n, to - from);
+
+            if (prefixes != null) {
+                System.arraycopy(SortedArrayDictionary.this.prefixes, from, prefixes, n, to - from);
+            }
+
+            n += to - from;
+        }
+
+        /**
+         * Appends copies of the entries in the slots [from, to) of other.
+         */
+        void take(int from, int to) {
+            for (int j = from; j < to; j++) {
+                Entry<K, V> entry = other.data[j];
+
+                data[n] = new Entry<>(entry.getKey(), entry.getValue());
+
+                if (prefixes != null) {
+                    prefixes[n] = (other.prefix == prefix) ? other.prefixes[j] : prefix.applyAsLong(entry.getKey());
+                }
+
+                n++;
+            }
+        }
+
+        /**
+         * Handles a key contained in slot i of this dictionary and slot j of other.
+         */
+        void both(SetOperation op, int i, int j, BinaryOperator<V> resolver) {
+            if (op == SetOperation.DIFFERENCE) {
+                return;
+            }
+
+            if (op == SetOperation.UNION) {
+                Entry<K, V> entry = SortedArrayDictionary.this.data[i];
+
+                entry.setValue(resolver.apply(entry.getValue(), other.data[j].getValue()));
+            }
+
+            keep(i, i + 1);
+        }
+    }
+
+    /**
+     * Removed entry whose key is kept for binary search.
+     */
+    private static class Tombstone<K, V> extends Entry<K, V> {
+        Tombstone(K key) {
+            super(key, null);
+        }
+    }
 }
@@ -0,0 +1,351 @@
+package dictionary;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Implementation of the Dictionary interface as splay tree.
+ * <p>
+ * The entries are ordered using their natural ordering on the keys,
+ * or by a Comparator provided at set creation time, depending on which constructor is used.
+ * <p>
+ * Every insert, search and remove moves the accessed node to the root (top-down splaying),
+ * so frequently accessed keys stay close to the root. A sequence of m operations takes O(m log n) in total,
+ * and much less for skewed access patterns, while a single operation may take O(n).
+ * <p>
+ * Since even a search restructures the tree, the dictionary must not be searched concurrently.
+ * Iterators and cursors tolerate searches between their steps:
+ * they find their position again by key after the tree has been restructured.
+ *
+ * @param <K> Key.
+ * @param <V> Value.
+ */
+public class SplayTreeDictionary<K, V> implements Dictionary<K, V> {
+
+    private final Comparator<? super K> cmp;
+
+    private Node<K, V> root;
+    private int size = 0;
+
+    // Incremented by every restructuring, so that cursors know when to find their position again.
+    private int shape = 0;
+
+    // Holds the left and right trees assembled during splay.
+    private final Node<K, V> header = new Node<>(null, null);
+
+    public SplayTreeDictionary() {
+        this(null);
+    }
+
+    public SplayTreeDictionary(Comparator<? super K> cmp) {
+        if (cmp == null) {
+            this.cmp = (x, y) -> ((Comparable<? super K>) x).compareTo(y);
+        } else {
+            this.cmp = cmp;
+        }
+    }
+
+    /**
+     * Top-down splay: moves the node containing key, or the last node on the search path for key, to the root.
+     * The tree must not be empty.
+     * Returns the comparison of key with the key of the new root.
+     */
+    private int splay(K key) {
+        ++shape;
+
+        Node<K, V> l = header;
+        Node<K, V> r = header;
+        Node<K, V> t = root;
+
+        header.left = null;
+        header.right = null;
+
+        int c = cmp.compare(key, t.key);
+
+        while (c != 0) {
+            if (c < 0) {
+                if (t.left == null) {
+                    break;
+                }
+
+                c = cmp.compare(key, t.left.key);
+
+                if (c < 0) {
+                    // zig-zig: rotate right
+                    Node<K, V> y = t.left;
+                    t.left = y.right;
+                    y.right = t;
+                    t = y;
+
+                    if (t.left == null) {
+                        break;
+                    }
+
+                    c = cmp.compare(key, t.left.key);
+                }
+
+                // link right
+                r.left = t;
+                r = t;
+                t = t.left;
+            } else {
+                if (t.right == null) {
+                    break;
+                }
+
+                c = cmp.compare(key, t.right.key);
+
+                if (c > 0) {
+                    // zig-zig: rotate left
+                    Node<K, V> y = t.right;
+                    t.right = y.left;
+                    y.left = t;
+                    t = y;
+
+                    if (t.right == null) {
+                        break;
+                    }
+
+                    c = cmp.compare(key, t.right.key);
+                }
+
+                // link left
+                l.right = t;
+                l = t;
+                t = t.right;
+            }
+        }
+
+        // assemble
+        l.right = t.left;
+        r.left = t.right;
+        t.left = header.right;
+        t.right = header.left;
+
+        root = t;
+
+        return c;
+    }
+
+    @Override
+    public V insert(K key, V value) {
+        if (root == null) {
+            root = new Node<>(key, value);
+            ++size;
+
+            return null;
+        }
+
+        int c = splay(key);
+
+        if (c == 0) {
+            V oldValue = root.value;
+            root.value = value;
+
+            return oldValue;
+        }
+
+        Node<K, V> p = new Node<>(key, value);
+
+        if (c < 0) {
+            p.left = root.left;
+            p.right = root;
+            root.left = null;
+        } else {
+            p.right = root.right;
+            p.left = root;
+            root.right = null;
+        }
+
+        root = p;
+        ++size;
+
+        return null;
+    }
+
+    @Override
+    public V search(K key) {
+        if (root == null) {
+            return null;
+        }
+
+        return (splay(key) == 0) ? root.value : null;
+    }
+
+    @Override
+    public V remove(K key) {
+        if (root == null || splay(key) != 0) {
+            return null;
+        }
+
+        V oldValue = root.value;
+
+        if (root.left == null) {
+            root = root.right;
+        } else {
+            Node<K, V> right = root.right;
+
+            // key is greater than all keys in the left subtree, so its maximum becomes the root.
+            root = root.left;
+            splay(key);
+            root.right = right;
+        }
+
+        --size;
+
+        return oldValue;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public MemoryFootprint footprint(boolean withPayload) {
+        long node = MemoryFootprint.object(4L * MemoryFootprint.REFERENCE);
+
+        // The header is a node as well.
+        long structure = MemoryFootprint.object(3L * MemoryFootprint.REFERENCE + 2 * Integer.BYTES)
+                + (size + 1L) * node;
+
+        return new MemoryFootprint(structure, 0, withPayload ? MemoryFootprint.payload(this) : 0);
+    }
+
+    @Override
+    public Iterator<Entry<K, V>> iterator() {
+        Cursor<K, V> cursor = cursor();
+
+        return new Iterator<>() {
+            boolean advanced = cursor.advance();
+
+            @Override
+            public boolean hasNext() {
+                return advanced;
+            }
+
+            @Override
+            public Entry<K, V> next() {
+                if (!advanced) {
+                    throw new NoSuchElementException();
+                }
+
+                Entry<K, V> entry = new Entry<>(cursor.key(), cursor.value());
+
+                advanced = cursor.advance();
+
+                return entry;
+            }
+        };
+    }
+
+    /**
+     * Returns a cursor that walks the tree in order with an explicit stack of the nodes still to be visited.
+     * If the tree has been restructured since the last step, the stack is rebuilt
+     * by descending from the root to the successor of the current key.
+     */
+    @Override
+    public Cursor<K, V> cursor() {
+        return new Cursor<>() {
+            @SuppressWarnings("unchecked")
+            Node<K, V>[] stack = new Node[16];
+            int depth = 0;
+            Node<K, V> p;
+            boolean started = false;
+            int expectedShape;
+
+            @Override
+            public boolean advance() {
+                if (!started) {
+                    started = true;
+                    pushLeft(root);
+                } else if (p == null) {
+                    return false;
+                } else if (expectedShape != shape) {
+                    seekSuccessor(p.key);
+                } else {
+                    pushLeft(p.right);
+                }
+
+                p = (depth == 0) ? null : stack[--depth];
+                expectedShape = shape;
+
+                return p != null;
+            }
+
+            @Override
+            public K key() {
+                return current().key;
+            }
+
+            @Override
+            public V value() {
+                return current().value;
+            }
+
+            @Override
+            public V setValue(V value) {
+                V old = current().value;
+
+                p.value = value;
+
+                return old;
+            }
+
+            private Node<K, V> current() {
+                if (p == null) {
+                    throw new NoSuchElementException();
+                }
+
+                return p;
+            }
+
+            private void pushLeft(Node<K, V> q) {
+                while (q != null) {
+                    push(q);
+                    q = q.left;
+                }
+            }
+
+            // The nodes on the path to key at which the path turns left are exactly the nodes still to be visited.
+            private void seekSuccessor(K key) {
+                depth = 0;
+
+                Node<K, V> q = root;
+
+                while (q != null) {
+                    if (cmp.compare(key, q.key) < 0) {
+                        push(q);
+                        q = q.left;
+                    } else {
+                        q = q.right;
+                    }
+                }
+            }
+
+            private void push(Node<K, V> q) {
+                if (depth == stack.length) {
+                    stack = Arrays.copyOf(stack, 2 * depth);
+                }
+
+                stack[depth++] = q;
+            }
+        };
+    }
+
+    private static class Node<K, V> {
+        K key;
+        V value;
+        Node<K, V> left;
+        Node<K, V> right;
+
+        Node(K k, V v) {
+            key = k;
+            value = v;
+            left = null;
+            right = null;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package dictionary;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+
+/**
+ * Thread-safe view of a dictionary.
+ * <p>
+ * All operations of the backing dictionary are executed while holding the lock of this view,
+ * because even searches may modify the backing dictionary (e.g. the finger of BinaryTreeDictionary).
+ * Like Collections.synchronizedMap, iterating requires the caller to synchronize on this view manually.
+ *
+ * @param <K> Key.
+ * @param <V> Value.
+ */
+public class SynchronizedDictionary<K, V> implements Dictionary<K, V> {
+
+    private final Dictionary<K, V> dictionary;
+
+    public SynchronizedDictionary(Dictionary<K, V> dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    @Override
+    public synchronized V insert(K key, V value) {
+        return dictionary.insert(key, value);
+    }
+
+    @Override
+    public synchronized V search(K key) {
+        return dictionary.search(key);
+    }
+
+    @Override
+    public synchronized void searchAll(K[] keys, V[] out) {
+        dictionary.searchAll(keys, out);
+    }
+
+    @Override
+    public synchronized V remove(K key) {
+        return dictionary.remove(key);
+    }
+
+    @Override
+    public synchronized int size() {
+        return dictionary.size();
+    }
+
+    @Override
+    public synchronized MemoryFootprint footprint(boolean withPayload) {
+        return new MemoryFootprint(MemoryFootprint.object(MemoryFootprint.REFERENCE), 0, 0)
+                .plus(dictionary.footprint(withPayload));
+    }
+
+    /**
+     * Must be called and used while synchronized on this dictionary.
+     */
+    @Override
+    public Iterator<Entry<K, V>> iterator() {
+        return dictionary.iterator();
+    }
+
+    /**
+     * Must be called and used while synchronized on this dictionary.
+     */
+    @Override
+    public Cursor<K, V> cursor() {
+        return dictionary.cursor();
+    }
+
+    /**
+     * Must be called and used while synchronized on this dictionary.
+     */
+    @Override
+    public Spliterator<Entry<K, V>> spliterator() {
+        return dictionary.spliterator();
+    }
+}
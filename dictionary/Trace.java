@@ -0,0 +1,239 @@
+package dictionary;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Recorded sequence of dictionary operations with String keys and values.
+ * <p>
+ * A trace file starts with MAGIC, followed by one record per operation:
+ * the operation code, the time since the previous record in nanoseconds as variable-length long
+ * (7 bits per byte, lowest bits first), and depending on the operation the key and the value in modified UTF-8.
+ * A search of a key costs about the length of the key plus 4 bytes.
+ */
+public final class Trace {
+
+    public static final byte INSERT = 0;
+    public static final byte SEARCH = 1;
+    public static final byte REMOVE = 2;
+    public static final byte SCAN = 3;
+
+    private static final int MAGIC = 0x44545231; // "DTR1"
+
+    private final byte[] operations;
+    private final long[] times;
+    private final String[] keys;
+    private final String[] values;
+
+    private Trace(byte[] operations, long[] times, String[] keys, String[] values) {
+        this.operations = operations;
+        this.times = times;
+        this.keys = keys;
+        this.values = values;
+    }
+
+    /**
+     * Reads a trace file written by a Writer.
+     *
+     * @param file trace file.
+     * @return trace.
+     * @throws IOException if the file cannot be read or is no trace file.
+     */
+    public static Trace read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + " is no trace file");
+            }
+
+            int n = 0;
+            byte[] operations = new byte[1024];
+            long[] times = new long[1024];
+            String[] keys = new String[1024];
+            String[] values = new String[1024];
+            long time = 0;
+
+            while (true) {
+                int operation = in.read();
+
+                if (operation < 0) {
+                    break;
+                }
+
+                if (n == operations.length) {
+                    operations = Arrays.copyOf(operations, 2 * n);
+                    times = Arrays.copyOf(times, 2 * n);
+                    keys = Arrays.copyOf(keys, 2 * n);
+                    values = Arrays.copyOf(values, 2 * n);
+                }
+
+                time += readVarLong(in);
+
+                operations[n] = (byte) operation;
+                times[n] = time;
+
+                switch (operation) {
+                    case INSERT:
+                        keys[n] = in.readUTF();
+                        values[n] = in.readUTF();
+                        break;
+                    case SEARCH:
+                    case REMOVE:
+                        keys[n] = in.readUTF();
+                        break;
+                    case SCAN:
+                        break;
+                    default:
+                        throw new IOException("Unknown operation " + operation + " in record " + n);
+                }
+
+                n++;
+            }
+
+            return new Trace(Arrays.copyOf(operations, n), Arrays.copyOf(times, n),
+                    Arrays.copyOf(keys, n), Arrays.copyOf(values, n));
+        }
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+
+        for (int shift = 0; ; shift += 7) {
+            int b = in.read();
+
+            if (b < 0) {
+                throw new EOFException("Truncated record");
+            }
+
+            value |= (long) (b & 0x7f) << shift;
+
+            if (b < 0x80) {
+                return value;
+            }
+        }
+    }
+
+    public int size() {
+        return operations.length;
+    }
+
+    public byte getOperation(int i) {
+        return operations[i];
+    }
+
+    /**
+     * @param i index of the record.
+     * @return time of record i in nanoseconds since the first record.
+     */
+    public long getTime(int i) {
+        return times[i] - times[0];
+    }
+
+    public String getKey(int i) {
+        return keys[i];
+    }
+
+    public String getValue(int i) {
+        return values[i];
+    }
+
+    /**
+     * Applies record i to dictionary.
+     *
+     * @param i          index of the record.
+     * @param dictionary dictionary the operation is applied to.
+     * @return a value depending on the result, so that the operation cannot be optimized away.
+     */
+    public int apply(int i, Dictionary<String, String> dictionary) {
+        switch (operations[i]) {
+            case INSERT:
+                return (dictionary.insert(keys[i], values[i]) == null) ? 0 : 1;
+            case SEARCH:
+                return (dictionary.search(keys[i]) == null) ? 0 : 1;
+            case REMOVE:
+                return (dictionary.remove(keys[i]) == null) ? 0 : 1;
+            default:
+                // Like the Tui, a scan of a shared dictionary holds its lock.
+                synchronized (dictionary) {
+                    int n = 0;
+                    Dictionary.Cursor<String, String> cursor = dictionary.cursor();
+
+                    while (cursor.advance()) {
+                        n++;
+                    }
+
+                    return n;
+                }
+        }
+    }
+
+    /**
+     * Writes records to a trace file. All methods may be called concurrently.
+     */
+    public static class Writer implements Closeable {
+        private final DataOutputStream out;
+        private long previous = System.nanoTime();
+
+        /**
+         * Creates or overwrites file.
+         *
+         * @param file trace file.
+         * @throws IOException if the file cannot be written.
+         */
+        public Writer(Path file) throws IOException {
+            out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+            out.writeInt(MAGIC);
+        }
+
+        /**
+         * Appends a record.
+         *
+         * @param operation INSERT, SEARCH, REMOVE or SCAN.
+         * @param key       key; ignored for SCAN.
+         * @param value     value; only used for INSERT.
+         * @throws UncheckedIOException if the record cannot be written.
+         */
+        public synchronized void record(byte operation, String key, String value) {
+            long now = System.nanoTime();
+
+            try {
+                out.writeByte(operation);
+                writeVarLong(now - previous);
+
+                if (operation != SCAN) {
+                    out.writeUTF(key);
+                }
+
+                if (operation == INSERT) {
+                    out.writeUTF(value);
+                }
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+
+            previous = now;
+        }
+
+        private void writeVarLong(long value) throws IOException {
+            while ((value & ~0x7fL) != 0) {
+                out.writeByte((int) (value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+
+            out.writeByte((int) value);
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package dictionary;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a trace recorded by TracingDictionary against a new dictionary
+ * and reports the throughput and the latency percentiles of the single operations.
+ * <p>
+ * At original speed every operation is started at its recorded time, and its latency is measured from that time,
+ * so that operations delayed by slow predecessors count as slow as well.
+ * As fast as possible, every operation is started as soon as the previous one has finished.
+ * With several replayers, each of them replays the whole trace concurrently against one shared SynchronizedDictionary.
+ */
+public class TraceReplayer {
+
+    /**
+     * @param args trace file, and optionally implementation (sortedarray, hash, cuckoo, binarytree, splaytree or adaptive),
+     *             speed (original or max) and number of replayers.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.out.println("Usage: TraceReplayer trace [implementation] [original|max] [replayers]");
+            return;
+        }
+
+        Trace trace = Trace.read(Paths.get(args[0]));
+        String implementation = (args.length > 1) ? args[1] : "hash";
+        boolean original = (args.length > 2) && args[2].equals("original");
+        int replayers = (args.length > 3) ? Integer.parseInt(args[3]) : 1;
+
+        Dictionary<String, String> dictionary;
+
+        switch (implementation) {
+            case "sortedarray":
+                dictionary = SortedArrayDictionary.withPrefixCache(false);
+                break;
+            case "hash":
+                dictionary = new HashDictionary<>();
+                break;
+            case "binarytree":
+                dictionary = BinaryTreeDictionary.withPrefixCache();
+                break;
+            case "cuckoo":
+                dictionary = new CuckooHashDictionary<>();
+                break;
+            case "adaptive":
+                dictionary = new AdaptiveDictionary<>();
+                break;
+            case "splaytree":
+                dictionary = new SplayTreeDictionary<>();
+                break;
+            default:
+                System.out.println("Unknown implementation: " + implementation);
+                return;
+        }
+
+        if (replayers > 1) {
+            dictionary = new SynchronizedDictionary<>(dictionary);
+        }
+
+        Dictionary<String, String> shared = dictionary;
+        List<Future<long[]>> futures = new ArrayList<>();
+
+        long start = System.nanoTime();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(replayers)) {
+            for (int r = 0; r < replayers; r++) {
+                futures.add(executor.submit(() -> replay(trace, shared, original, start)));
+            }
+        }
+
+        long end = System.nanoTime();
+
+        long[] latencies = new long[replayers * trace.size()];
+        int k = 0;
+
+        for (Future<long[]> future : futures) {
+            for (long latency : future.get()) {
+                latencies[k++] = latency;
+            }
+        }
+
+        if (latencies.length == 0) {
+            System.out.println("The trace is empty.");
+            return;
+        }
+
+        Arrays.sort(latencies);
+
+        System.out.printf("%s, %s speed, replayers: %d, operations: %d, final size: %d%n",
+                implementation, original ? "original" : "maximum", replayers, latencies.length, dictionary.size());
+        System.out.printf("Throughput: %.0f operations/s%n", latencies.length / ((end - start) / 1e9));
+        System.out.printf("Latency p50: %.2f us, p99: %.2f us, p99.9: %.2f us, max: %.2f us%n",
+                percentile(latencies, 0.50) / 1e3, percentile(latencies, 0.99) / 1e3,
+                percentile(latencies, 0.999) / 1e3, latencies[latencies.length - 1] / 1e3);
+    }
+
+    /**
+     * Applies all records of trace to dictionary and returns the latency of every operation in ns.
+     */
+    private static long[] replay(Trace trace, Dictionary<String, String> dictionary, boolean original, long start) {
+        long[] latencies = new long[trace.size()];
+        long checksum = 0;
+
+        for (int i = 0; i < trace.size(); i++) {
+            long begin;
+
+            if (original) {
+                begin = start + trace.getTime(i);
+
+                for (long now = System.nanoTime(); now < begin; now = System.nanoTime()) {
+                    LockSupport.parkNanos(begin - now);
+                }
+            } else {
+                begin = System.nanoTime();
+            }
+
+            checksum += trace.apply(i, dictionary);
+
+            latencies[i] = System.nanoTime() - begin;
+        }
+
+        if (checksum < 0) {
+            System.out.println(checksum);
+        }
+
+        return latencies;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+}
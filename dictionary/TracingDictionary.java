@@ -0,0 +1,95 @@
+package dictionary;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+
+/**
+ * View of a dictionary that records every operation in a trace, to be replayed by TraceReplayer.
+ * <p>
+ * searchAll is recorded as a search for each key, and iterator, cursor and spliterator as a scan.
+ * If the view is used concurrently, it must be wrapped by a SynchronizedDictionary,
+ * so that the records are written in the order in which the operations are executed.
+ */
+public class TracingDictionary implements Dictionary<String, String> {
+
+    private final Dictionary<String, String> dictionary;
+    private final Trace.Writer trace;
+
+    /**
+     * @param dictionary backing dictionary.
+     * @param trace      writer receiving the records; is not closed by this view.
+     */
+    public TracingDictionary(Dictionary<String, String> dictionary, Trace.Writer trace) {
+        this.dictionary = dictionary;
+        this.trace = trace;
+    }
+
+    public Dictionary<String, String> getDictionary() {
+        return dictionary;
+    }
+
+    @Override
+    public String insert(String key, String value) {
+        trace.record(Trace.INSERT, key, value);
+
+        return dictionary.insert(key, value);
+    }
+
+    @Override
+    public String search(String key) {
+        trace.record(Trace.SEARCH, key, null);
+
+        return dictionary.search(key);
+    }
+
+    @Override
+    public void searchAll(String[] keys, String[] out) {
+        for (String key : keys) {
+            trace.record(Trace.SEARCH, key, null);
+        }
+
+        dictionary.searchAll(keys, out);
+    }
+
+    @Override
+    public String remove(String key) {
+        trace.record(Trace.REMOVE, key, null);
+
+        return dictionary.remove(key);
+    }
+
+    @Override
+    public int size() {
+        return dictionary.size();
+    }
+
+    /**
+     * Does not include the buffer of the trace writer.
+     */
+    @Override
+    public MemoryFootprint footprint(boolean withPayload) {
+        return new MemoryFootprint(MemoryFootprint.object(2L * MemoryFootprint.REFERENCE), 0, 0)
+                .plus(dictionary.footprint(withPayload));
+    }
+
+    @Override
+    public Iterator<Entry<String, String>> iterator() {
+        trace.record(Trace.SCAN, null, null);
+
+        return dictionary.iterator();
+    }
+
+    @Override
+    public Cursor<String, String> cursor() {
+        trace.record(Trace.SCAN, null, null);
+
+        return dictionary.cursor();
+    }
+
+    @Override
+    public Spliterator<Entry<String, String>> spliterator() {
+        trace.record(Trace.SCAN, null, null);
+
+        return dictionary.spliterator();
+    }
+}
@@ -0,0 +1,260 @@
+package dictionary;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Keeps a dictionary in sync with a translation file of lines "german english".
+ * <p>
+ * The content loaded last is kept as sorted snapshot. On reload, the new content is read into another snapshot,
+ * and both are merged in key order: keys only in the old snapshot are removed from the dictionary,
+ * new keys and keys with a changed translation are inserted, and unchanged keys are not touched.
+ * Changes made to the dictionary in between, e.g. by the Tui commands i and d, are only overwritten
+ * for keys whose lines have changed.
+ * <p>
+ * watch starts a daemon thread that reloads the file whenever a WatchService reports it as created or modified.
+ * That thread writes to the dictionary while other threads may use it, so a watched dictionary must be
+ * safe for concurrent use, e.g. a SynchronizedDictionary, and every other access must go through it
+ * or synchronize on it. The delta is applied while synchronized on the dictionary,
+ * so that a SynchronizedDictionary applies it as a whole.
+ */
+public class TranslationFileWatcher implements Closeable {
+
+    // Editors often write a file in several steps; events arriving within this delay are handled by one reload.
+    private static final long SETTLE_MILLIS = 50;
+
+    private final Path file;
+    private final Dictionary<String, String> dictionary;
+
+    private TreeMap<String, String> snapshot = new TreeMap<>();
+    private WatchService watchService;
+
+    /**
+     * @param file       translation file.
+     * @param dictionary dictionary to be kept in sync; must be safe for concurrent use if watch is called.
+     */
+    public TranslationFileWatcher(Path file, Dictionary<String, String> dictionary) {
+        this.file = file.toAbsolutePath();
+        this.dictionary = dictionary;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Reads the file and applies the changes since the last reload to the dictionary.
+     * The first reload inserts all translations.
+     *
+     * @return changes applied.
+     * @throws IOException if the file cannot be read; the dictionary is unchanged then.
+     */
+    public synchronized Reload reload() throws IOException {
+        long start = System.nanoTime();
+
+        TreeMap<String, String> loaded = new TreeMap<>();
+
+        try (Stream<String> translations = Files.lines(file)) {
+            translations.map(translation -> translation.split("\\s"))
+                    .filter(translation -> translation.length == 2)
+                    .forEach(translation -> loaded.put(translation[0], translation[1]));
+        }
+
+        Reload reload = new Reload(file);
+
+        synchronized (dictionary) {
+            Iterator<Map.Entry<String, String>> oldEntries = snapshot.entrySet().iterator();
+            Iterator<Map.Entry<String, String>> newEntries = loaded.entrySet().iterator();
+
+            Map.Entry<String, String> o = next(oldEntries);
+            Map.Entry<String, String> n = next(newEntries);
+
+            while (o != null || n != null) {
+                int c = (o == null) ? 1 : (n == null) ? -1 : o.getKey().compareTo(n.getKey());
+
+                if (c < 0) {
+                    dictionary.remove(o.getKey());
+                    ++reload.removed;
+
+                    o = next(oldEntries);
+                } else if (c > 0) {
+                    dictionary.insert(n.getKey(), n.getValue());
+                    ++reload.inserted;
+
+                    n = next(newEntries);
+                } else {
+                    if (!o.getValue().equals(n.getValue())) {
+                        dictionary.insert(n.getKey(), n.getValue());
+                        ++reload.changed;
+                    }
+
+                    o = next(oldEntries);
+                    n = next(newEntries);
+                }
+            }
+        }
+
+        snapshot = loaded;
+        reload.nanos = System.nanoTime() - start;
+
+        return reload;
+    }
+
+    private static <T> T next(Iterator<T> iterator) {
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+
+    /**
+     * Reloads the file now and every time it is changed, until close is called.
+     *
+     * @param listener receives the result of every reload, called from the watching thread.
+     * @param errors   receives the exceptions of failed reloads, called from the watching thread.
+     * @throws IOException           if the file cannot be read or its directory cannot be watched.
+     * @throws IllegalStateException if the file is already watched.
+     */
+    public synchronized void watch(Consumer<Reload> listener, Consumer<IOException> errors) throws IOException {
+        if (watchService != null) {
+            throw new IllegalStateException(file + " is already watched");
+        }
+
+        listener.accept(reload());
+
+        WatchService service = FileSystems.getDefault().newWatchService();
+
+        try {
+            file.getParent().register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException exception) {
+            service.close();
+            throw exception;
+        }
+
+        watchService = service;
+
+        Thread thread = new Thread(() -> awaitChanges(service, listener, errors), "TranslationFileWatcher " + file.getFileName());
+
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Waits for events of the watched directory and reloads if one of them concerns the file.
+     */
+    private void awaitChanges(WatchService service, Consumer<Reload> listener, Consumer<IOException> errors) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean changed = false;
+
+                do {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (file.getFileName().equals(event.context())) {
+                            changed = true;
+                        }
+                    }
+
+                    key.reset();
+
+                    key = service.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+                } while (key != null);
+
+                if (changed) {
+                    try {
+                        listener.accept(reload());
+                    } catch (IOException exception) {
+                        errors.accept(exception);
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException exception) {
+            // close was called.
+        }
+    }
+
+    /**
+     * Returns whether the file is watched.
+     *
+     * @return true between watch and close.
+     */
+    public synchronized boolean isWatching() {
+        return watchService != null;
+    }
+
+    /**
+     * Stops watching the file. The dictionary keeps its content.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+            watchService = null;
+        }
+    }
+
+    /**
+     * Changes applied to the dictionary by a reload.
+     */
+    public static class Reload {
+        private final Path file;
+        private int inserted = 0;
+        private int changed = 0;
+        private int removed = 0;
+        private long nanos;
+
+        private Reload(Path file) {
+            this.file = file;
+        }
+
+        public Path getFile() {
+            return file;
+        }
+
+        /**
+         * @return number of keys that were not contained in the file before.
+         */
+        public int getInserted() {
+            return inserted;
+        }
+
+        /**
+         * @return number of keys whose translation has changed.
+         */
+        public int getChanged() {
+            return changed;
+        }
+
+        /**
+         * @return number of keys that are no longer contained in the file.
+         */
+        public int getRemoved() {
+            return removed;
+        }
+
+        /**
+         * @return number of insert and remove calls applied to the dictionary.
+         */
+        public int getDeltaSize() {
+            return inserted + changed + removed;
+        }
+
+        /**
+         * @return time needed for reading the file, computing the delta and applying it, in nanoseconds.
+         */
+        public long getNanos() {
+            return nanos;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package dictionary;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves the Tui command language (s, i, d, p, r) over TCP on localhost; files cannot be watched with w.
+ * <p>
+ * Every connection is handled by its own virtual thread and its own Tui, all working on one shared dictionary.
+ * Clients may pipeline commands: the responses of all commands received so far
+ * are written in one batch as soon as no further input is pending.
+ */
+public class TranslationServer {
+
+    public static final int DEFAULT_PORT = 4711;
+
+    private final ServerSocket serverSocket;
+    private final Dictionary<String, String> dictionary;
+
+    /**
+     * @param port       port on localhost to listen on.
+     * @param dictionary shared dictionary; must be safe for concurrent use, e.g. a SynchronizedDictionary.
+     */
+    public TranslationServer(int port, Dictionary<String, String> dictionary) throws IOException {
+        this.serverSocket = new ServerSocket(port, 128, InetAddress.getLoopbackAddress());
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Starts the server.
+     *
+     * @param args optional port, implementation (sortedarray, hash, cuckoo, binarytree, splaytree or adaptive)
+     *             and trace file recording all operations on the shared dictionary, to be replayed by TraceReplayer.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        String implementation = (args.length > 1) ? args[1] : "hash";
+
+        Dictionary<String, String> dictionary;
+
+        switch (implementation) {
+            case "sortedarray":
+                dictionary = SortedArrayDictionary.withPrefixCache(false);
+                break;
+            case "hash":
+                dictionary = new HashDictionary<>();
+                break;
+            case "binarytree":
+                dictionary = BinaryTreeDictionary.withPrefixCache();
+                break;
+            case "cuckoo":
+                dictionary = new CuckooHashDictionary<>();
+                break;
+            case "adaptive":
+                dictionary = new AdaptiveDictionary<>();
+                break;
+            case "splaytree":
+                dictionary = new SplayTreeDictionary<>();
+                break;
+            default:
+                System.out.println("Unbekannte Implementierung: " + implementation);
+                return;
+        }
+
+        Dictionary<String, String> shared = dictionary;
+
+        if (args.length > 2) {
+            Trace.Writer trace = new Trace.Writer(Paths.get(args[2]));
+
+            // The server only stops when the process is terminated.
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    trace.close();
+                } catch (IOException exception) {
+                    System.out.println("Die Aufzeichnung konnte nicht gespeichert werden: " + exception.getMessage());
+                }
+            }));
+
+            shared = new TracingDictionary(dictionary, trace);
+        }
+
+        TranslationServer server = new TranslationServer(port, new SynchronizedDictionary<>(shared));
+
+        System.out.println("Server mit " + dictionary.getClass().getSimpleName() + " läuft auf Port " + server.getPort() + ".");
+
+        server.serve();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Accepts connections until the server is closed.
+     */
+    public void serve() throws IOException {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            while (!serverSocket.isClosed()) {
+                Socket socket;
+
+                try {
+                    socket = serverSocket.accept();
+                } catch (IOException exception) {
+                    if (serverSocket.isClosed()) {
+                        break;
+                    }
+
+                    throw exception;
+                }
+
+                executor.submit(() -> handle(socket));
+            }
+        }
+    }
+
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+
+    private void handle(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             PrintStream out = new PrintStream(new BufferedOutputStream(socket.getOutputStream()), false, StandardCharsets.UTF_8);
+             Tui tui = new Tui(out, dictionary)) {
+            String line;
+
+            while ((line = in.readLine()) != null) {
+                if (!tui.execute(line.split("\\s+"))) {
+                    break;
+                }
+
+                if (!in.ready()) {
+                    out.flush();
+                }
+            }
+        } catch (IOException exception) {
+            System.out.println("Verbindung wurde abgebrochen: " + exception.getMessage());
+        }
+    }
+}
@@ -1,213 +1,608 @@
 package dictionary;
 
 import javax.swing.*;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.PrintStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Scanner;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
-public class Tui {
+public class Tui implements AutoCloseable {
 
     private static final String FILE_NAME = "dtengl.txt";
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+
+    private final PrintStream out;
+    private final boolean shared;
+    private Dictionary<String, String> dictionary;
+    private Dictionary<String, ?> implementation;
+    private BidirectionalDictionary<String, String> bidirectional;
+    private FuzzyDictionary<String> fuzzy;
+    private TranslationFileWatcher watcher;
+    private Trace.Writer trace;
+
+    /**
+     * Creates a command processor that prints to out and lets the user choose the implementation with create.
+     *
+     * @param out stream receiving the responses.
+     */
+    public Tui(PrintStream out) {
+        this.out = out;
+        this.shared = false;
+    }
+
+    /**
+     * Creates a command processor that prints to out and works on a dictionary shared with other processors.
+     * The implementation cannot be changed with create and no file chooser is opened.
+     *
+     * @param out        stream receiving the responses.
+     * @param dictionary shared dictionary.
+     */
+    public Tui(PrintStream out, Dictionary<String, String> dictionary) {
+        this.out = out;
+        this.shared = true;
+        this.dictionary = dictionary;
+
+        if (dictionary instanceof FuzzyDictionary<String> fuzzyDictionary) {
+            this.fuzzy = fuzzyDictionary;
+            dictionary = fuzzyDictionary.getDictionary();
+        }
 
-    public static void main(String[] args) {
-        Scanner scanner = new Scanner(System.in);
+        this.implementation = dictionary;
 
-        Dictionary<String, String> dictionary = null;
+        if (dictionary instanceof BidirectionalDictionary<String, String> bidirectionalDictionary) {
+            this.bidirectional = bidirectionalDictionary;
+            this.implementation = bidirectionalDictionary.getDictionary();
+        }
+    }
 
-        while (scanner.hasNext()) {
-            String[] line = scanner.nextLine().split("\\s+");
+    /**
+     * Reads commands from standard input.
+     * <p>
+     * In batch mode the commands are parsed directly from the bytes of standard input
+     * and the responses are buffered instead of being written line by line;
+     * the responses are the same as in interactive mode.
+     * At the end the number of commands per second is reported on standard error.
+     *
+     * @param args optional -b for batch mode, and optional trace file recording all operations on the dictionary,
+     *             to be replayed by TraceReplayer.
+     */
+    public static void main(String[] args) throws IOException {
+        boolean batch = args.length > 0 && args[0].equals("-b");
+        int traceArg = batch ? 1 : 0;
+
+        PrintStream out = batch ? new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out),
+                OUTPUT_BUFFER_SIZE), false, System.out.charset()) : System.out;
+
+        Tui tui = new Tui(out);
+
+        if (args.length > traceArg) {
+            tui.trace = new Trace.Writer(Paths.get(args[traceArg]));
+        }
 
-            String german;
-            String english;
+        try {
+            if (batch) {
+                executeBatch(tui, new CommandReader(System.in));
+            } else {
+                Scanner scanner = new Scanner(System.in);
 
-            switch (line[0]) {
-                case "create":
-                    if (line.length == 1) {
-                        dictionary = new SortedArrayDictionary<>();
-                        System.out.println("SortedArrayDictionary wurde als Implementierung gewählt.");
-                        break;
+                while (scanner.hasNext()) {
+                    if (!tui.execute(scanner.nextLine().split("\\s+"))) {
+                        return;
                     }
+                }
+            }
+        } finally {
+            tui.close();
+            out.flush();
 
-                    if (line.length == 2) {
-                        String implementation = line[1];
+            if (tui.trace != null) {
+                tui.trace.close();
+            }
+        }
+    }
 
-                        switch (implementation) {
-                            case "sortedarray":
-                                dictionary = new SortedArrayDictionary<>();
-                                System.out.println("SortedArrayDictionary wurde als Implementierung gewählt.");
-                                break;
-                            case "hash":
-                                dictionary = new HashDictionary<>();
-                                System.out.println("HashDictionary wurde als Implementierung gewählt.");
-                                break;
-                            case "binarytree":
-                                System.out.println("BinaryTreeDictionary wurde als Implementierung gewählt.");
-                                dictionary = new BinaryTreeDictionary<>();
-                                break;
-                            default:
-                                System.out.println("Unbekannte Implementierung: " + implementation);
-                        }
+    /**
+     * Executes all commands read by reader and reports the throughput.
+     */
+    private static void executeBatch(Tui tui, CommandReader reader) throws IOException {
+        long commands = 0;
+        long start = System.nanoTime();
 
-                        break;
-                    }
+        try {
+            while (reader.hasNext()) {
+                commands++;
 
-                    System.out.println("Nutzung: create Implementierung");
+                if (!tui.execute(reader.next())) {
                     break;
-                case "r":
-                    if (!isCreated(dictionary)) {
-                        break;
-                    }
+                }
+            }
+        } finally {
+            tui.out.flush();
 
-                    try {
-                        if (line.length == 1) {
-                            try (Stream<String> translations = Files.lines(Paths.get(FILE_NAME))) {
-                                insert(dictionary, translations.map(translation -> translation.split("\\s")).filter(translation -> translation.length == 2));
-                            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            System.err.printf("%d Befehle in %.1f ms ausgeführt (%.0f Befehle/s).%n",
+                    commands, seconds * 1e3, commands / seconds);
+        }
+    }
+
+    /**
+     * Executes a single command.
+     *
+     * @param line command and its arguments.
+     * @return false, if the command was exit.
+     */
+    public boolean execute(String[] line) {
+        String german;
+        String english;
+
+        // A line of whitespace has no words at all and is treated like an empty line.
+        switch ((line.length == 0) ? "" : line[0]) {
+            case "create":
+                if (shared) {
+                    out.println("Die Implementierung kann nicht geändert werden.");
+                    break;
+                }
+
+                if (line.length == 1) {
+                    setDictionary(SortedArrayDictionary.withPrefixCache(false));
+                    out.println("SortedArrayDictionary wurde als Implementierung gewählt.");
+                    break;
+                }
 
-                            System.out.println(FILE_NAME + " wurde eingelesen.");
+                if (line.length == 2) {
+                    String implementation = line[1];
 
+                    switch (implementation) {
+                        case "sortedarray":
+                            setDictionary(SortedArrayDictionary.withPrefixCache(false));
+                            out.println("SortedArrayDictionary wurde als Implementierung gewählt.");
                             break;
+                        case "hash":
+                            setDictionary(new HashDictionary<>());
+                            out.println("HashDictionary wurde als Implementierung gewählt.");
+                            break;
+                        case "binarytree":
+                            out.println("BinaryTreeDictionary wurde als Implementierung gewählt.");
+                            setDictionary(BinaryTreeDictionary.withPrefixCache());
+                            break;
+                        case "cuckoo":
+                            setDictionary(new CuckooHashDictionary<>());
+                            out.println("CuckooHashDictionary wurde als Implementierung gewählt.");
+                            break;
+                        case "adaptive":
+                            setDictionary(new AdaptiveDictionary<>());
+                            out.println("AdaptiveDictionary wurde als Implementierung gewählt.");
+                            break;
+                        case "splaytree":
+                            setDictionary(new SplayTreeDictionary<>());
+                            out.println("SplayTreeDictionary wurde als Implementierung gewählt.");
+                            break;
+                        default:
+                            out.println("Unbekannte Implementierung: " + implementation);
+                    }
+
+                    break;
+                }
+
+                out.println("Nutzung: create Implementierung");
+                break;
+            case "r":
+                if (!isCreated()) {
+                    break;
+                }
+
+                try {
+                    if (line.length == 1) {
+                        try (Stream<String> translations = Files.lines(Paths.get(FILE_NAME))) {
+                            insert(translations.map(translation -> translation.split("\\s")).filter(translation -> translation.length == 2));
                         }
 
-                        if (line.length == 2 || line.length == 3) {
-                            try {
-                                int n = Integer.parseInt(line[1]);
+                        out.println(FILE_NAME + " wurde eingelesen.");
 
-                                if (n < 1) {
-                                    System.out.println("n muss eine Zahl größer als 0 sein.");
-                                    break;
-                                }
+                        break;
+                    }
 
-                                Path path;
+                    if (line.length == 2 || line.length == 3) {
+                        try {
+                            int n = Integer.parseInt(line[1]);
 
-                                if (line.length == 3) {
-                                    path = Paths.get(line[2]);
-                                } else {
-                                    JFileChooser chooser = new JFileChooser();
+                            if (n < 1) {
+                                out.println("n muss eine Zahl größer als 0 sein.");
+                                break;
+                            }
 
-                                    if (chooser.showOpenDialog(null) != JFileChooser.APPROVE_OPTION) {
-                                        System.out.println("Es wurde keine Datei ausgewählt.");
-                                        break;
-                                    }
+                            Path path;
 
-                                    path = Paths.get(chooser.getSelectedFile().getPath());
-                                }
+                            if (line.length == 3) {
+                                path = Paths.get(line[2]);
+                            } else if (shared) {
+                                out.println("Nutzung: r n Dateiname");
+                                break;
+                            } else {
+                                JFileChooser chooser = new JFileChooser();
 
-                                try (Stream<String> translations = Files.lines(path)) {
-                                    insert(dictionary, translations.limit(n).map(translation -> translation.split("\\s")).filter(translation -> translation.length == 2));
+                                if (chooser.showOpenDialog(null) != JFileChooser.APPROVE_OPTION) {
+                                    out.println("Es wurde keine Datei ausgewählt.");
+                                    break;
                                 }
 
-                                System.out.println(path + " wurde eingelesen.");
-                            } catch (NumberFormatException exception) {
-                                System.out.println("n ist keine Zahl sein.");
+                                path = Paths.get(chooser.getSelectedFile().getPath());
                             }
 
-                            break;
+                            try (Stream<String> translations = Files.lines(path)) {
+                                insert(translations.limit(n).map(translation -> translation.split("\\s")).filter(translation -> translation.length == 2));
+                            }
+
+                            out.println(path + " wurde eingelesen.");
+                        } catch (NumberFormatException exception) {
+                            out.println("n ist keine Zahl sein.");
                         }
-                    } catch (IOException exception) {
-                        System.out.println("Von " + FILE_NAME + " konnte nicht gelesen werden: " + exception.getMessage());
+
+                        break;
                     }
+                } catch (IOException exception) {
+                    out.println("Von " + FILE_NAME + " konnte nicht gelesen werden: " + exception.getMessage());
+                }
 
-                    System.out.println("Nutzung: r n Dateiname");
+                out.println("Nutzung: r n Dateiname");
 
+                break;
+            case "w":
+                if (shared) {
+                    // Otherwise any client could make the server load and watch arbitrary files.
+                    out.println("Im Servermodus können keine Dateien überwacht werden.");
                     break;
-                case "p":
-                    if (!isCreated(dictionary)) {
-                        break;
-                    }
+                }
+
+                if (!isCreated()) {
+                    break;
+                }
 
-                    if (dictionary.size() == 0) {
-                        System.out.println("Es wurden noch keine Übersetzungen gespeichert.");
+                if (line.length > 2) {
+                    out.println("Nutzung: w [Dateiname | aus]");
+                    break;
+                }
+
+                if (line.length == 2 && line[1].equals("aus")) {
+                    if (watcher == null) {
+                        out.println("Es wird keine Datei überwacht.");
                         break;
                     }
 
-                    for (Dictionary.Entry<String, String> entry : dictionary) {
-                        System.out.println(entry.getKey() + " - " + entry.getValue());
-                    }
+                    out.println("Die Überwachung von " + watcher.getFile() + " wurde beendet.");
+                    stopWatching();
+                    break;
+                }
 
-                    if (dictionary instanceof BinaryTreeDictionary<String, String>) {
-                        ((BinaryTreeDictionary<String, String>) dictionary).prettyPrint();
-                    }
+                stopWatching();
+                watch(Paths.get((line.length == 2) ? line[1] : FILE_NAME));
 
+                break;
+            case "p":
+                if (!isCreated()) {
                     break;
-                case "s":
-                    if (!isCreated(dictionary)) {
-                        break;
+                }
+
+                if (dictionary.size() == 0) {
+                    out.println("Es wurden noch keine Übersetzungen gespeichert.");
+                    break;
+                }
+
+                if (line.length == 3) {
+                    printRange(line[1], line[2]);
+                    break;
+                }
+
+                if (line.length != 1) {
+                    out.println("Nutzung: p [von bis]");
+                    break;
+                }
+
+                printLocked(printer -> {
+                    Dictionary.Cursor<String, String> cursor = dictionary.cursor();
+
+                    while (cursor.advance()) {
+                        printer.println(cursor.key() + " - " + cursor.value());
                     }
 
-                    if (line.length != 2) {
-                        System.out.println("Nutzung: s deutsch");
-                        break;
+                    if (implementation instanceof BinaryTreeDictionary<String, ?>) {
+                        ((BinaryTreeDictionary<String, ?>) implementation).prettyPrint(printer);
                     }
+                });
 
-                    german = line[1];
-                    english = dictionary.search(german);
+                break;
+            case "s":
+                if (!isCreated()) {
+                    break;
+                }
 
-                    if (english == null) {
-                        System.out.println("Die Übersetzung für " + german + " existiert nicht");
-                        break;
+                if (line.length < 2) {
+                    out.println("Nutzung: s deutsch...");
+                    break;
+                }
+
+                String[] germans = Arrays.copyOfRange(line, 1, line.length);
+                String[] englishs = new String[germans.length];
+
+                dictionary.searchAll(germans, englishs);
+
+                for (int i = 0; i < germans.length; i++) {
+                    if (englishs[i] == null) {
+                        out.println("Die Übersetzung für " + germans[i] + " existiert nicht");
+
+                        if (fuzzy != null) {
+                            List<String> similar;
+
+                            synchronized (dictionary) {
+                                similar = fuzzy.similarKeys(germans[i], 1);
+                            }
+
+                            if (!similar.isEmpty()) {
+                                out.println("Meinten Sie: " + String.join(", ", similar) + "?");
+                            }
+                        }
+                    } else {
+                        out.println("Die Übersetzung für " + germans[i] + " lautet " + englishs[i] + ".");
                     }
+                }
 
-                    System.out.println("Die Übersetzung für " + german + " lautet " + english + ".");
+                break;
+            case "f":
+                if (!isCreated()) {
+                    break;
+                }
 
+                if (fuzzy == null) {
+                    out.println("Die fehlertolerante Suche ist nicht verfügbar.");
                     break;
-                case "i":
-                    if (!isCreated(dictionary)) {
-                        break;
+                }
+
+                if (line.length != 2 && line.length != 3) {
+                    out.println("Nutzung: f deutsch [k]");
+                    break;
+                }
+
+                int k = 1;
+
+                if (line.length == 3) {
+                    try {
+                        k = Integer.parseInt(line[2]);
+                    } catch (NumberFormatException exception) {
+                        k = -1;
                     }
 
-                    if (line.length != 3) {
-                        System.out.println("Nutzung: i deutsch englisch");
+                    if (k < 0) {
+                        out.println("k muss eine Zahl größer oder gleich 0 sein.");
                         break;
                     }
+                }
 
-                    german = line[1];
-                    english = line[2];
+                List<String> similar;
 
-                    dictionary.insert(german, english);
+                synchronized (dictionary) {
+                    similar = fuzzy.similarKeys(line[1], k);
+                }
 
-                    System.out.println("Übersetzung von " + german + " zu " + english + " wurde hinzugefügt");
+                if (similar.isEmpty()) {
+                    out.println("Es gibt keine Wörter mit höchstens " + k + " Abweichungen von " + line[1] + ".");
+                    break;
+                }
+
+                out.println("Wörter mit höchstens " + k + " Abweichungen von " + line[1] + ": " + String.join(", ", similar));
 
+                break;
+            case "e":
+                if (!isCreated()) {
                     break;
-                case "d":
-                    if (!isCreated(dictionary)) {
-                        break;
-                    }
+                }
 
-                    if (line.length != 2) {
-                        System.out.println("Nutzung: d deutsch");
-                        break;
-                    }
+                if (bidirectional == null) {
+                    out.println("Die Suche nach englischen Wörtern ist nicht verfügbar.");
+                    break;
+                }
 
-                    german = line[1];
-                    english = dictionary.remove(german);
+                if (line.length != 2) {
+                    out.println("Nutzung: e englisch");
+                    break;
+                }
 
-                    if (english == null) {
-                        System.out.println("Übersetzung für " + german + " ist nicht gespeichert.");
-                        break;
-                    }
+                english = line[1];
+
+                List<String> translations;
+
+                synchronized (dictionary) {
+                    translations = bidirectional.searchKeys(english);
+                }
+
+                if (translations.isEmpty()) {
+                    out.println("Die deutsche Übersetzung für " + english + " existiert nicht");
+                    break;
+                }
+
+                out.println("Die deutsche Übersetzung für " + english + " lautet " + String.join(", ", translations) + ".");
 
-                    System.out.println("Übersetzung von " + german + " zu " + english + " wurde gelöscht");
+                break;
+            case "i":
+                if (!isCreated()) {
+                    break;
+                }
+
+                if (line.length != 3) {
+                    out.println("Nutzung: i deutsch englisch");
+                    break;
+                }
+
+                german = line[1];
+                english = line[2];
+
+                dictionary.insert(german, english);
 
+                out.println("Übersetzung von " + german + " zu " + english + " wurde hinzugefügt");
+
+                break;
+            case "d":
+                if (!isCreated()) {
+                    break;
+                }
+
+                if (line.length != 2) {
+                    out.println("Nutzung: d deutsch");
                     break;
-                case "exit":
-                    return;
-                default:
-                    System.out.println("Unbekannter Befehl");
+                }
+
+                german = line[1];
+                english = dictionary.remove(german);
+
+                if (english == null) {
+                    out.println("Übersetzung für " + german + " ist nicht gespeichert.");
+                    break;
+                }
+
+                out.println("Übersetzung von " + german + " zu " + english + " wurde gelöscht");
+
+                break;
+            case "exit":
+                stopWatching();
+
+                return false;
+            default:
+                out.println("Unbekannter Befehl");
+        }
+
+        return true;
+    }
+
+    /**
+     * Prints the entries at the positions from (inclusive) to to (exclusive) in alphabetical order.
+     */
+    private void printRange(String from, String to) {
+        if (!(implementation instanceof RankedDictionary<String, ?> ranked)) {
+            out.println("Die Implementierung unterstützt keinen Zugriff nach Position.");
+            return;
+        }
+
+        int first;
+        int last;
+
+        try {
+            first = Integer.parseInt(from);
+            last = Integer.parseInt(to);
+        } catch (NumberFormatException exception) {
+            out.println("von und bis müssen Zahlen sein.");
+            return;
+        }
+
+        printLocked(printer -> {
+            if (first < 0 || first > last || last > ranked.size()) {
+                printer.println("Es muss 0 <= von <= bis <= " + ranked.size() + " gelten.");
+                return;
+            }
+
+            Iterator<? extends Dictionary.Entry<String, ?>> iterator = ranked.iteratorFrom(first);
+
+            for (int i = first; i < last; i++) {
+                String german = iterator.next().getKey();
+
+                printer.println(i + ": " + german + " - " + dictionary.search(german));
             }
+        });
+    }
+
+    /**
+     * Prints into a buffer while synchronized on the dictionary, so that it is not modified by other threads,
+     * and writes the buffer to out after releasing the lock.
+     * A client of TranslationServer that does not read its responses thus blocks only its own connection.
+     */
+    private void printLocked(Consumer<PrintStream> print) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PrintStream printer = new PrintStream(buffer, false, out.charset());
+
+        synchronized (dictionary) {
+            print.accept(printer);
         }
+
+        printer.flush();
+        out.writeBytes(buffer.toByteArray());
+    }
+
+    /**
+     * Loads path into the dictionary and reloads it whenever it changes.
+     */
+    private void watch(Path path) {
+        TranslationFileWatcher fileWatcher = new TranslationFileWatcher(path, dictionary);
+
+        try {
+            fileWatcher.watch(
+                    reload -> out.printf("%s wurde in %.1f ms eingelesen: %d hinzugefügt, %d geändert, %d gelöscht.%n",
+                            reload.getFile(), reload.getNanos() / 1e6, reload.getInserted(), reload.getChanged(),
+                            reload.getRemoved()),
+                    exception -> out.println("Von " + path + " konnte nicht gelesen werden: " + exception.getMessage()));
+        } catch (IOException exception) {
+            out.println("Von " + path + " konnte nicht gelesen werden: " + exception.getMessage());
+            return;
+        }
+
+        watcher = fileWatcher;
+
+        out.println(watcher.getFile() + " wird überwacht.");
+    }
+
+    /**
+     * Stops watching a file, so that no thread keeps modifying the dictionary or printing to out
+     * after the commands have ended, e.g. because the client of TranslationServer has disconnected.
+     */
+    @Override
+    public void close() {
+        stopWatching();
+    }
+
+    private void stopWatching() {
+        if (watcher == null) {
+            return;
+        }
+
+        try {
+            watcher.close();
+        } catch (IOException exception) {
+            out.println("Die Überwachung konnte nicht beendet werden: " + exception.getMessage());
+        }
+
+        watcher = null;
+    }
+
+    private void setDictionary(Dictionary<String, String> implementation) {
+        // The watched file was loaded into the previous dictionary.
+        stopWatching();
+
+        this.implementation = implementation;
+
+        bidirectional = new BidirectionalDictionary<>(implementation);
+        fuzzy = new FuzzyDictionary<>(bidirectional);
+
+        // The file watcher modifies the dictionary from its own thread; the reverse index and the BK-tree
+        // are accessed directly, so their commands synchronize on dictionary as well.
+        dictionary = new SynchronizedDictionary<>((trace == null) ? fuzzy : new TracingDictionary(fuzzy, trace));
     }
 
-    private static void insert(Dictionary<String, String> dictionary, Stream<String[]> translations) {
+    private void insert(Stream<String[]> translations) {
         translations.forEach(translation -> dictionary.insert(translation[0], translation[1]));
     }
 
-    private static boolean isCreated(Dictionary<String, String> dictionary) {
+    private boolean isCreated() {
         if (dictionary == null) {
-            System.out.println("Implementierung wurde noch nicht gewählt.");
+            out.println("Implementierung wurde noch nicht gewählt.");
             return false;
         }
 